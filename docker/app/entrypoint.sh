@@ -0,0 +1,39 @@
+#!/bin/sh
+# Starts the application with container-aware JVM settings.
+#
+# JVM_PROFILE picks the collector:
+#   throughput (default)  G1
+#   latency               generational ZGC
+#   latency-shenandoah    Shenandoah
+# The collector is always set explicitly: with fewer than 2 CPUs or 1792 MB the JVM would
+# otherwise fall back to Serial GC. JAVA_OPTS is appended last and overrides anything here.
+set -e
+
+case "${JVM_PROFILE:-throughput}" in
+    throughput)
+        GC_OPTS="-XX:+UseG1GC"
+        ;;
+    latency)
+        GC_OPTS="-XX:+UseZGC -XX:+ZGenerational"
+        ;;
+    latency-shenandoah)
+        GC_OPTS="-XX:+UseShenandoahGC"
+        ;;
+    *)
+        echo "Unknown JVM_PROFILE '$JVM_PROFILE' (throughput, latency, latency-shenandoah)" >&2
+        exit 1
+        ;;
+esac
+
+# Heap is a share of the container limit; the rest is for metaspace (~110 MB for this
+# application), code cache, thread stacks and direct buffers, which are capped so the total
+# stays under the limit. Exit on OOM so the container is restarted instead of limping on.
+MEMORY_OPTS="-XX:MaxRAMPercentage=${HEAP_PERCENTAGE:-50} \
+ -XX:MaxMetaspaceSize=192m \
+ -XX:ReservedCodeCacheSize=64m \
+ -XX:MaxDirectMemorySize=64m \
+ -Xss512k \
+ -XX:+ExitOnOutOfMemoryError"
+
+# shellcheck disable=SC2086
+exec java $GC_OPTS $MEMORY_OPTS $JAVA_OPTS org.springframework.boot.loader.JarLauncher "$@"
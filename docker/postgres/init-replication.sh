@@ -0,0 +1,10 @@
+#!/bin/sh
+# Runs once, when the primary's data directory is first initialized: adds the role and the
+# pg_hba.conf entry the streaming replica (docker compose --profile replica) connects with.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-EOSQL
+    create role replicator with replication login password '$REPLICATION_PASSWORD';
+EOSQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
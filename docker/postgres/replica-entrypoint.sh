@@ -0,0 +1,16 @@
+#!/bin/sh
+# Clones the primary into an empty data directory as a hot standby, then starts Postgres
+# through the image's own entrypoint (which fixes ownership and drops to the postgres user).
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup --host=postgres --username=replicator --pgdata="$PGDATA" \
+            --write-recovery-conf --wal-method=stream; do
+        echo "Waiting for the primary..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+    chmod 700 "$PGDATA"
+fi
+
+exec docker-entrypoint.sh postgres
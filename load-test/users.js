@@ -0,0 +1,50 @@
+// k6 load test for the users API, used to compare the platform-thread and virtual-thread modes.
+//   k6 run -e BASE_URL=http://localhost:8080 load-test/users.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+    scenarios: {
+        burst: {
+            executor: 'ramping-arrival-rate',
+            startRate: 100,
+            timeUnit: '1s',
+            preAllocatedVUs: 500,
+            maxVUs: 5000,
+            stages: [
+                { target: 1000, duration: '30s' },
+                { target: 3000, duration: '1m' },
+                { target: 100, duration: '30s' },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(99)<500'],
+    },
+};
+
+export function setup() {
+    const users = [];
+    for (let i = 0; i < 10; i++) {
+        users.push({ name: `Load User ${i}`, email: `load.user.${Date.now()}.${i}@example.com` });
+    }
+    const res = http.post(`${BASE_URL}/api/v1/users/batch`, JSON.stringify(users), HEADERS);
+    return { ids: res.json().map((item) => item.id) };
+}
+
+export default function (data) {
+    const roll = Math.random();
+    if (roll < 0.7) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        check(http.get(`${BASE_URL}/api/v1/users/${id}`), { 'get by id 200': (r) => r.status === 200 });
+    } else if (roll < 0.9) {
+        check(http.get(`${BASE_URL}/api/v1/users?limit=50`), { 'page 200': (r) => r.status === 200 });
+    } else {
+        const body = JSON.stringify({ name: 'k6', email: `k6.${__VU}.${__ITER}@example.com` });
+        check(http.post(`${BASE_URL}/api/v1/users`, body, HEADERS), { 'create 201': (r) => r.status === 201 });
+    }
+}
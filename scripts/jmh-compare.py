@@ -0,0 +1,52 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and fail when a benchmark got slower.
+
+    scripts/jmh-compare.py baseline.json build/results/jmh/results.json [--threshold 10]
+
+Benchmarks are matched by name and parameters. Scores are compared in their own unit, so the
+JMH mode decides the direction: for avgt/sample/ss lower is better, for thrpt higher is better.
+Exits with status 1 if any benchmark regressed by more than the threshold (percent).
+"""
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    return {key(r): r for r in results}
+
+
+def key(result):
+    params = ",".join(f"{k}={v}" for k, v in sorted(result.get("params", {}).items()))
+    return f"{result['benchmark']}({params})" if params else result["benchmark"]
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0)
+    args = parser.parse_args()
+
+    baseline, current = load(args.baseline), load(args.current)
+    regressions = 0
+    for name in sorted(current):
+        if name not in baseline:
+            print(f"NEW        {name}")
+            continue
+        before = baseline[name]["primaryMetric"]["score"]
+        after = current[name]["primaryMetric"]["score"]
+        unit = current[name]["primaryMetric"]["scoreUnit"]
+        change = (after - before) / before * 100 if before else 0.0
+        if current[name]["mode"] == "thrpt":
+            change = -change
+        status = "REGRESSED" if change > args.threshold else "ok"
+        regressions += status == "REGRESSED"
+        print(f"{status:<10} {name}: {before:.3f} -> {after:.3f} {unit} ({change:+.1f}% slower)")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Measures startup time and resident memory of each build variant:
+#
+#   jar      java -jar (build/libs, ./gradlew bootJar)
+#   aot      java -Dspring.aot.enabled=true -jar (same jar)
+#   cds      AOT + AppCDS archive (build/cds, ./gradlew cdsArchive)
+#   native   GraalVM native image (build/native, ./gradlew nativeCompile)
+#
+# Variants that have not been built are skipped. Postgres must be reachable with the settings in
+# application.yml (docker compose up -d postgres). Usage: scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+JAVA=${JAVA:-java}
+JAR=build/libs/sb-postgres-docker-compose-0.0.1-SNAPSHOT.jar
+NATIVE=build/native/nativeCompile/sb-postgres-docker-compose
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+# starts the command, waits for Spring Boot's "Started ..." line, prints "<seconds> <rss KiB>"
+measure_once() {
+    (cd "$1" && shift && exec "$@") > "$LOG" 2>&1 &
+    local pid=$!
+    local line=""
+    for _ in $(seq 1 600); do
+        line=$(grep -m1 'Started SbPostgresDockerComposeApplication' "$LOG" || true)
+        [ -n "$line" ] && break
+        if ! kill -0 "$pid" 2>/dev/null; then
+            cat "$LOG" >&2
+            return 1
+        fi
+        sleep 0.1
+    done
+    if [ -z "$line" ]; then
+        echo "$* did not start within 60 s" >&2
+        kill "$pid"
+        return 1
+    fi
+    local rss
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    # "... in 1.234 seconds (process running for 1.567)": the JVM's own uptime includes JVM startup
+    echo "$line" | sed -E 's/.*process running for ([0-9.]+).*/\1/' | tr -d '\n'
+    echo " $rss"
+}
+
+measure() {
+    local name=$1
+    shift
+    local results=()
+    for _ in $(seq 1 "$RUNS"); do
+        results+=("$(measure_once "$@")")
+    done
+    printf '%s\n' "${results[@]}" | awk -v name="$name" '
+        { time += $1; rss += $2 }
+        END { printf "%-8s %10.3f %10.1f\n", name, time / NR, rss / NR / 1024 }'
+}
+
+printf '%-8s %10s %10s\n' variant startup_s rss_mib
+if [ -f "$JAR" ]; then
+    measure jar . "$JAVA" -jar "$JAR"
+    measure aot . "$JAVA" -Dspring.aot.enabled=true -jar "$JAR"
+fi
+if [ -f build/cds/app.jsa ]; then
+    measure cds build/cds "$JAVA" -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar
+fi
+if [ -x "$NATIVE" ]; then
+    measure native . "$NATIVE"
+fi
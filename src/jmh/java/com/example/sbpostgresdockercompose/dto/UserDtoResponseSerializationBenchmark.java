@@ -0,0 +1,72 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of user lists: {@code bean} is Jackson's reflective bean serializer (the
+ * previous path), {@code json}, {@code smile} and {@code cbor} use {@link UserDtoResponseSerializer}.
+ * Run with {@code -PjmhProfilers=gc}; {@code gc.alloc.rate.norm} divided by {@code size} is the
+ * allocation per user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserDtoResponseSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"bean", "json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<UserDtoResponse> users;
+
+    @Setup
+    public void setUp() {
+        objectMapper = switch (format) {
+            case "bean" -> new ObjectMapper();
+            case "json" -> withSerializer(new ObjectMapper(new JsonFactory()));
+            case "smile" -> withSerializer(new ObjectMapper(new SmileFactory()));
+            case "cbor" -> withSerializer(new ObjectMapper(new CBORFactory()));
+            default -> throw new IllegalArgumentException(format);
+        };
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(new UserDtoResponse((long) i, "User " + i, "user" + i + "@example.com", 0L));
+        }
+    }
+
+    @Benchmark
+    public void serializeList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), users);
+    }
+
+    private static ObjectMapper withSerializer(ObjectMapper objectMapper) {
+        return objectMapper.registerModule(new SimpleModule().addSerializer(new UserDtoResponseSerializer()));
+    }
+}
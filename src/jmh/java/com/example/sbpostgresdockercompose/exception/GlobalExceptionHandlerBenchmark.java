@@ -0,0 +1,98 @@
+package com.example.sbpostgresdockercompose.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of the 404 path, before and after the stackless exception and ProblemDetail body:
+ * the {@code legacy*} benchmarks reproduce the previous path (a {@code String.format} message,
+ * a full stack trace and the old {@code ErrorResponse} body), the others run the current code.
+ * Exceptions are thrown from {@code depth} frames down, since a stack trace costs in proportion
+ * to the stack it captures and a real request runs a hundred or more frames under Tomcat and Spring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private static final String LEGACY_USER_NOT_FOUND = "User not found with id= %d";
+
+    @Param({"10", "150"})
+    private int depth;
+
+    private GlobalExceptionHandler globalExceptionHandler;
+    private ObjectMapper objectMapper;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        globalExceptionHandler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        objectMapper = new ObjectMapper();
+        id = 42L;
+    }
+
+    @Benchmark
+    public RuntimeException legacyThrow() {
+        return throwAt(depth, () -> new LegacyEntityNotFoundException(String.format(LEGACY_USER_NOT_FOUND, id)));
+    }
+
+    @Benchmark
+    public RuntimeException currentThrow() {
+        return throwAt(depth, () -> EntityNotFoundException.userNotFound(id));
+    }
+
+    @Benchmark
+    public byte[] legacyNotFoundResponse() throws JsonProcessingException {
+        RuntimeException e = throwAt(depth, () -> new LegacyEntityNotFoundException(String.format(LEGACY_USER_NOT_FOUND, id)));
+        return objectMapper.writeValueAsBytes(new LegacyErrorResponse("404 NOT_FOUND", e.getMessage(), e.getCause()));
+    }
+
+    @Benchmark
+    public byte[] currentNotFoundResponse() throws JsonProcessingException {
+        EntityNotFoundException e = (EntityNotFoundException) throwAt(depth, () -> EntityNotFoundException.userNotFound(id));
+        return objectMapper.writeValueAsBytes(globalExceptionHandler.handleEntityNotFoundException(e).getBody());
+    }
+
+    private static RuntimeException throwAt(int depth, Supplier<RuntimeException> exception) {
+        try {
+            recurse(depth, exception);
+            throw new AssertionError("unreachable");
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static void recurse(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        recurse(depth - 1, exception);
+    }
+
+    private static class LegacyEntityNotFoundException extends RuntimeException {
+        LegacyEntityNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private record LegacyErrorResponse(String code, String message, Throwable cause) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponseSerializer;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gzip of a serialized {@code GET /api/v1/users} page at each deflate level: the CPU side of the
+ * trade-off. The size side does not need a benchmark, since a page compresses to the same size on
+ * every run. Tomcat's {@code server.compression} uses level 6 on every response; the page cache
+ * pays its {@code app.page-cache.compression-level} once per cached page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPageCompressionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param({"1", "4", "6", "9"})
+    private int level;
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new SimpleModule().addSerializer(new UserDtoResponseSerializer()));
+        List<UserDtoResponse> users = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            users.add(new UserDtoResponse((long) i, "User " + i, "user" + i + "@example.com", (long) i % 7));
+        }
+        page = objectMapper.writeValueAsBytes(new UserPageResponse(users, (long) pageSize));
+    }
+
+    @Benchmark
+    public byte[] gzip() {
+        return UserPageCacheFilter.gzip(page, level);
+    }
+}
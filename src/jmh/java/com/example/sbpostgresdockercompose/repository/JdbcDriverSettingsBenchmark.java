@@ -0,0 +1,115 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PgJDBC with the driver defaults versus the {@code prod} profile's settings
+ * ({@code reWriteBatchedInserts}, {@code prepareThreshold=1}), on the two statement shapes that
+ * matter: a Hibernate-sized insert batch and a lookup by primary key. Needs a running Postgres,
+ * {@code JMH_JDBC_URL} (default {@code jdbc:postgresql://localhost:5432/pg_db_test}), and uses a
+ * temporary table so the schema is left alone. Network round trips dominate, so run it against a
+ * database at the same distance as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcDriverSettingsBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int BATCH_SIZE = 50; // hibernate.jdbc.batch_size
+
+    @Param({"default", "prod"})
+    private String settings;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement findById;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getenv().getOrDefault("JMH_JDBC_USERNAME", "postgres"));
+        properties.setProperty("password", System.getenv().getOrDefault("JMH_JDBC_PASSWORD", "pass"));
+        if (settings.equals("prod")) {
+            properties.setProperty("reWriteBatchedInserts", "true");
+            properties.setProperty("prepareThreshold", "1");
+        }
+        connection = DriverManager.getConnection(
+                System.getenv().getOrDefault("JMH_JDBC_URL", "jdbc:postgresql://localhost:5432/pg_db_test"), properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create temporary table users_benchmark (id bigint primary key, name varchar(255), email varchar(255))");
+            statement.execute("insert into users_benchmark select i, 'User ' || i, 'user' || i || '@example.com' "
+                    + "from generate_series(1, " + USERS + ") i");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("insert into users_benchmark (id, name, email) values (?, ?, ?)");
+        findById = connection.prepareStatement("select id, name, email from users_benchmark where id = ?");
+        nextId = USERS + 1;
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeInsertedUsers() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("delete from users_benchmark where id > " + USERS);
+        }
+        connection.commit();
+        nextId = USERS + 1;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    // one operation = one committed batch of BATCH_SIZE users
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long id = nextId++;
+            insert.setLong(1, id);
+            insert.setString(2, "User " + id);
+            insert.setString(3, "user" + id + "@example.com");
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    @Benchmark
+    public String findById() throws SQLException {
+        findById.setLong(1, ThreadLocalRandom.current().nextLong(1, USERS + 1));
+        try (ResultSet resultSet = findById.executeQuery()) {
+            resultSet.next();
+            String email = resultSet.getString(3);
+            connection.commit();
+            return email;
+        }
+    }
+}
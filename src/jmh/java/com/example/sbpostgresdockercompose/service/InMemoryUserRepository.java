@@ -0,0 +1,85 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import com.example.sbpostgresdockercompose.repository.UserRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed {@link UserRepository} implementing just the methods {@link UserServiceImpl} calls,
+ * so service benchmarks measure the service and mapping code rather than a database or a mock framework.
+ */
+final class InMemoryUserRepository implements InvocationHandler {
+
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    static UserRepository create(int size) {
+        InMemoryUserRepository handler = new InMemoryUserRepository();
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            handler.save(user);
+        }
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class}, handler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(users.get((Long) args[0]));
+            case "findDtoById" -> Optional.ofNullable(users.get((Long) args[0])).map(InMemoryUserRepository::toDto);
+            case "findDtosByIds" -> ((Collection<?>) args[0]).stream()
+                    .map(users::get)
+                    .filter(user -> user != null)
+                    .map(InMemoryUserRepository::toDto)
+                    .toList();
+            case "findDtoPageAfter" -> users.tailMap((Long) args[0], false).values().stream()
+                    .limit(((Pageable) args[1]).getPageSize())
+                    .map(InMemoryUserRepository::toDto)
+                    .toList();
+            case "findAllById" -> ((List<?>) args[0]).stream()
+                    .map(users::get)
+                    .filter(user -> user != null)
+                    .toList();
+            case "streamAllAsDto" -> users.values().stream().map(InMemoryUserRepository::toDto);
+            case "save" -> save((User) args[0]);
+            case "updateNameAndEmailReturning" -> Optional.ofNullable(users.computeIfPresent((Long) args[0], (id, user) -> {
+                user.setName((String) args[1]);
+                user.setEmail((String) args[2]);
+                user.setVersion(user.getVersion() + 1);
+                return user;
+            }));
+            case "deleteUserById" -> users.remove((Long) args[0]) == null ? 0 : 1;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryUserRepository" + users.keySet();
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    // what the constructor expression in UserRepository.SELECT_DTO builds from a row
+    private static UserDtoResponse toDto(User user) {
+        return new UserDtoResponse(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    private User save(User user) {
+        if (user.getId() == null) {
+            user.setId(sequence.incrementAndGet());
+            user.setVersion(0L);
+        }
+        users.put(user.getId(), user);
+        return user;
+    }
+}
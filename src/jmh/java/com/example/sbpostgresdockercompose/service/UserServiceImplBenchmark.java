@@ -0,0 +1,70 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserLookupProperties;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.repository.UserRepository;
+import com.example.sbpostgresdockercompose.util.DtoMapperUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserServiceImpl} on top of {@link InMemoryUserRepository}: service logic and mapping only,
+ * without Spring proxies (transactions, caching) or a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceImplBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private UserServiceImpl userService;
+    private UserDtoRequest userDtoRequest;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = InMemoryUserRepository.create(USERS);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        userService = new UserServiceImpl(userRepository,
+                new UserLookupCoalescer(userRepository, new UserLookupProperties(), meterRegistry),
+                new DtoMapperUtil(new ModelMapper(), meterRegistry));
+        userDtoRequest = new UserDtoRequest("John Doe", "john@example.com");
+    }
+
+    @Benchmark
+    public UserDtoResponse getUserById() {
+        return userService.getUserById(randomId());
+    }
+
+    @Benchmark
+    public UserPageResponse getAllUsers_page50() {
+        return userService.getAllUsers(randomId(), 50);
+    }
+
+    @Benchmark
+    public UserDtoResponse updateUser() {
+        return userService.updateUser(randomId(), userDtoRequest, null);
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, USERS + 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.sbpostgresdockercompose.util;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registered (precomputed) mappers vs. plain ModelMapper for the user type pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMapperUtilBenchmark {
+
+    private ModelMapper modelMapper;
+    private DtoMapperUtil dtoMapperUtil;
+    private User user;
+    private UserDtoRequest userDtoRequest;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        dtoMapperUtil = new DtoMapperUtil(modelMapper, new SimpleMeterRegistry());
+
+        user = new User();
+        user.setId(42L);
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+
+        userDtoRequest = new UserDtoRequest("John Doe", "john@example.com");
+    }
+
+    @Benchmark
+    public UserDtoResponse toDto_registeredMapper() {
+        return dtoMapperUtil.toDto(user, UserDtoResponse.class);
+    }
+
+    @Benchmark
+    public UserDtoResponse toDto_modelMapper() {
+        return modelMapper.map(user, UserDtoResponse.class);
+    }
+
+    @Benchmark
+    public User toEntity_registeredMapper() {
+        return dtoMapperUtil.toEntity(userDtoRequest, User.class);
+    }
+
+    @Benchmark
+    public User toEntity_modelMapper() {
+        return modelMapper.map(userDtoRequest, User.class);
+    }
+}
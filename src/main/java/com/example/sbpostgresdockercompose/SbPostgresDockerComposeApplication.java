@@ -2,12 +2,17 @@ package com.example.sbpostgresdockercompose;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class SbPostgresDockerComposeApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(SbPostgresDockerComposeApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(SbPostgresDockerComposeApplication.class, args);
+        // CDS training run (./gradlew cdsArchive): start once, then exit so the JVM writes the archive
+        if (Boolean.getBoolean("app.training-run")) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 
 }
@@ -1,10 +1,13 @@
 package com.example.sbpostgresdockercompose.config;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties({IdempotencyProperties.class, RateLimitProperties.class, UserChangeProperties.class,
+        UserIngestionProperties.class, UserLookupProperties.class, UserPageCacheProperties.class})
 public class AppConfig {
 
     @Bean
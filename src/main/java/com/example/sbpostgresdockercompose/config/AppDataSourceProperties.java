@@ -0,0 +1,55 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool sizing and the read replicas behind {@link ReplicaRoutingDataSource}, bound to
+ * {@code app.datasource.*}. Replica pools copy the primary's Hikari settings; only the
+ * connection details differ.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.datasource")
+public class AppDataSourceProperties {
+
+    private Pool pool = new Pool();
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replay lag above which a replica stops receiving reads until it catches up.
+     */
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Pool {
+        /**
+         * Sizes every pool as {@code databaseCores * connectionsPerCore + 1} (HikariCP's
+         * "cores * 2 + effective spindles", counting an SSD as one). Unset keeps Hikari's default
+         * of 10; an explicit {@code spring.datasource.hikari.maximum-pool-size} always wins.
+         */
+        private Integer connectionsPerCore;
+
+        /**
+         * Cores of the database server. Defaults to the cores available to this JVM, which is only
+         * a stand-in when the database runs on comparable hardware.
+         */
+        private Integer databaseCores;
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        // default to the primary's credentials: a streaming replica is a copy of the primary
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sbpostgresdockercompose.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+// runs the caching advice outside the transaction advice, so puts and evictions happen after commit
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+}
@@ -0,0 +1,108 @@
+package com.example.sbpostgresdockercompose.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC side of the application. Boot backs off its DataSource auto-configuration as soon as an
+ * R2DBC ConnectionFactory exists (used by the /api/v2 endpoints), so the pools are declared here:
+ * the primary, still bound to {@code spring.datasource.*}, and the read replicas from
+ * {@code app.datasource.replicas}, behind a {@link ReplicaRoutingDataSource}. The JPA transaction
+ * manager is primary so that {@code @Transactional} keeps resolving to it next to the R2DBC one.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AppDataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    // spring.datasource.hikari.* is bound after this method returns, so explicit settings override
+    // the computed pool size
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties,
+                                              AppDataSourceProperties appDataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Integer poolSize = poolSize(appDataSourceProperties.getPool(), Runtime.getRuntime().availableProcessors());
+        if (poolSize != null) {
+            dataSource.setMaximumPoolSize(poolSize);
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             AppDataSourceProperties appDataSourceProperties,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<AppDataSourceProperties.Replica> replicaProperties = appDataSourceProperties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            AppDataSourceProperties.Replica replica = replicaProperties.get(i);
+            if (!StringUtils.hasText(replica.getUrl())) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                config.setUsername(replica.getUsername());
+                config.setPassword(replica.getPassword());
+            }
+            // start even if the replica is down; the lag check keeps reads away from it
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, appDataSourceProperties.getMaxReplicaLag());
+    }
+
+    // defers the physical connection to the first statement, by which time the transaction's
+    // read-only flag is set and the routing data source can pick a pool
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    static Integer poolSize(AppDataSourceProperties.Pool pool, int availableProcessors) {
+        if (pool.getConnectionsPerCore() == null) {
+            return null;
+        }
+        int databaseCores = pool.getDatabaseCores() != null ? pool.getDatabaseCores() : availableProcessors;
+        return databaseCores * pool.getConnectionsPerCore() + 1;
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * {@code Idempotency-Key} handling of JSON POST/PUT requests, bound to {@code app.idempotency.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled;
+
+    /**
+     * Where keys and their responses are kept: {@code memory} (this instance only) or {@code jdbc}
+     * (the {@code idempotency_keys} table, shared by all instances).
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How long a response is replayed for its key; retries after that run again.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * A key whose request has been running this long is considered abandoned (e.g. the instance
+     * died) and can be taken over by a retry.
+     */
+    private Duration lockTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Memory store only: bytes of stored responses before the oldest keys are evicted.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    public enum Store {
+        MEMORY, JDBC
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.sbpostgresdockercompose.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * JSON plus the binary Smile ({@code application/x-jackson-smile}) and CBOR
+ * ({@code application/cbor}) formats, chosen by the {@code Accept} header. All three are built
+ * from Boot's ObjectMapper builder, so they share its settings and {@code @JsonComponent}s;
+ * Spring MVC's own Smile and CBOR converters would not see them, and are replaced.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-client rate limits and adaptive concurrency limiting of {@code /api/**}, bound to
+ * {@code app.rate-limit.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled;
+
+    /**
+     * Header naming the client. Only keys listed in {@link #clients} are trusted; requests without
+     * one of them are limited per remote address.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * Cost units each client may spend per second, sustained.
+     */
+    private double rate = 100;
+
+    /**
+     * Cost units a client may spend at once after being idle. Also the most a single request can cost.
+     */
+    private int burst = 200;
+
+    /**
+     * The API keys that get a bucket of their own, with their rate and burst.
+     */
+    private Map<String, Client> clients = new LinkedHashMap<>();
+
+    /**
+     * Cost units of each kind of request; list endpoints cost this much per 100 rows requested.
+     */
+    private Map<Category, Integer> costs = new EnumMap<>(Map.of(
+            Category.READ, 1,
+            Category.PAGE, 2,
+            Category.SEARCH, 2,
+            Category.WRITE, 2,
+            Category.BATCH, 20,
+            Category.SCAN, 100));
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Getter
+    @Setter
+    public static class Client {
+        private double rate;
+        private int burst;
+    }
+
+    @Getter
+    @Setter
+    public static class Concurrency {
+
+        private boolean enabled = true;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        /**
+         * Upper bound of the limit, however well latency holds up.
+         */
+        private int maxLimit = 200;
+
+        /**
+         * How much slower than the long-term average a request may get before the limit shrinks.
+         */
+        private double rttTolerance = 1.5;
+    }
+
+    public enum Category {
+        // one user, or a stream subscription
+        READ,
+        // GET /api/v1/users pages and multi-gets, per 100 rows
+        PAGE,
+        SEARCH,
+        // create, update or delete of one user
+        WRITE,
+        BATCH,
+        // export and import: the whole table
+        SCAN
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.sbpostgresdockercompose.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions ({@code @Transactional(readOnly = true)}) to the
+ * healthy replicas in turn, and everything else to the primary. A replica is healthy when, at its
+ * last check, its WAL receiver was streaming and had heard from the primary recently, and its
+ * replay lag was within {@code maxReplicaLag}; until the first check, and whenever no replica is
+ * healthy, reads go to the primary.
+ * <p>
+ * The read-only flag is only known once the transaction has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    // The receiver columns show whether WAL is still arriving: once the receiver dies, received and
+    // replayed positions stay equal and the replay lag reads zero however far the replica drifts.
+    // The replay lag is zero when everything received is replayed, so an idle primary is no lag.
+    private static final String LAG_QUERY = """
+            select r.pid is not null, r.status, extract(epoch from now() - r.last_msg_receipt_time),
+                   case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end
+            from (select 1) as one left join pg_stat_wal_receiver r on true""";
+    private static final String STREAMING = "streaming";
+    // an idle primary still sends a keepalive every wal_sender_timeout / 2, 30 s by default
+    private static final double MAX_RECEIVER_SILENCE_SECONDS = 60;
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxReplicaLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxReplicaLag) {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            targetDataSources.put(name, dataSource);
+            this.replicas.add(new Replica(name, dataSource));
+        });
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        this.maxReplicaLagMillis = maxReplicaLag.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica-lag-check-interval:PT5S}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            long lagMillis = measureLagMillis(replica);
+            replica.lagMillis = lagMillis;
+            replica.healthy = lagMillis >= 0 && lagMillis <= maxReplicaLagMillis;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("users.datasource.replica.lag", replica, r -> r.lagMillis < 0 ? Double.NaN : r.lagMillis / 1000.0)
+                    .tag("pool", replica.name)
+                    .baseUnit("seconds")
+                    .description("Replay lag at the last check, NaN if the replica was unreachable or not streaming")
+                    .register(registry);
+            Gauge.builder("users.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", replica.name)
+                    .description("1 while the replica receives read-only transactions")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        // the primary is a bean of its own; the replica pools are owned here
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private long measureLagMillis(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                boolean receiverRunning = resultSet.getBoolean(1);
+                String status = resultSet.getString(2);
+                double silenceSeconds = resultSet.getDouble(3);
+                boolean silenceUnknown = resultSet.wasNull();
+                double lagSeconds = resultSet.getDouble(4);
+                if (receiverRunning && status == null) {
+                    // pg_stat_wal_receiver hides everything but the pid from roles without pg_read_all_stats
+                    logger.warn("Cannot read pg_stat_wal_receiver on replica " + replica.name
+                            + ", grant pg_monitor to its user; routing its reads to the primary");
+                    return -1;
+                }
+                if (!STREAMING.equals(status) || silenceUnknown || silenceSeconds > MAX_RECEIVER_SILENCE_SECONDS) {
+                    logger.warn("Replica " + replica.name + " is not streaming from the primary (receiver "
+                            + (status == null ? "stopped" : status) + "), routing its reads to the primary");
+                    return -1;
+                }
+                return (long) (lagSeconds * 1000);
+            }
+        } catch (SQLException e) {
+            logger.warn("Lag check failed for replica " + replica.name + ", routing its reads to the primary", e);
+            return -1;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
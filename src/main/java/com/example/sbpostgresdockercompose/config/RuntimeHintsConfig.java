@@ -0,0 +1,48 @@
+package com.example.sbpostgresdockercompose.config;
+
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.dto.UserChangePage;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection hints for the native image. Controller signatures already get Jackson hints from
+ * Spring AOT, but users are also written by hand (the streaming export's
+ * {@code JsonGenerator#writeObject}) and copied by ModelMapper, which reads getters and setters
+ * and calls the no-arg constructor. Lombok needs nothing: its accessors are ordinary compiled methods.
+ */
+@Configuration
+@ImportRuntimeHints(RuntimeHintsConfig.UserRuntimeHints.class)
+public class RuntimeHintsConfig {
+
+    static class UserRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    User.class,
+                    UserDtoRequest.class,
+                    UserDtoResponse.class,
+                    UserPageResponse.class,
+                    UserBatchUpdateRequest.class,
+                    UserBatchItemResponse.class,
+                    UserImportResponse.class,
+                    UserIngestionStatus.class,
+                    UserChange.class,
+                    UserChangePage.class);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * User change feed ({@code GET /api/v1/users/changes}), bound to {@code app.changes.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.changes")
+public class UserChangeProperties {
+
+    private boolean enabled;
+
+    /**
+     * Evict users changed by other instances from the local cache. Only useful with more than one
+     * instance; this instance's own writes already update the cache.
+     */
+    private boolean evictCache;
+
+    /**
+     * Idle streams get a heartbeat this often, and check for changes even without a notification.
+     */
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /**
+     * A stream is closed after this long; clients reconnect with Last-Event-ID and resume.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    /**
+     * How long changes are kept, whether or not the feed is enabled. A cursor older than this is
+     * answered with 410 Gone; the consumer should reload the users and continue from the end.
+     */
+    private Duration retention = Duration.ofDays(7);
+}
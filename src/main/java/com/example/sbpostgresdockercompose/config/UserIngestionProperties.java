@@ -0,0 +1,33 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous user ingestion ({@code POST /api/v1/users/ingest}), bound to {@code app.ingestion.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.ingestion")
+public class UserIngestionProperties {
+
+    private boolean enabled;
+
+    /**
+     * Requests waiting to be written; beyond this, submissions are rejected with 429.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Most users written in one transaction (at most the batch endpoint's limit of 1000).
+     */
+    private int maxBatchSize = 500;
+
+    /**
+     * How long the status of a tracking id stays available.
+     */
+    private Duration statusTtl = Duration.ofMinutes(10);
+}
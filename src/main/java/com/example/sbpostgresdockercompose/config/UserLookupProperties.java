@@ -0,0 +1,35 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Coalescing of {@code GET /api/v1/users/{id}} lookups, bound to {@code app.lookup.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.lookup")
+public class UserLookupProperties {
+
+    private boolean coalesce;
+
+    /**
+     * How long the first lookup of a batch waits for others to join it. Every cache miss pays up to
+     * this much extra latency, so keep it well below the query time it saves.
+     */
+    private Duration coalesceWindow = Duration.ofMillis(2);
+
+    /**
+     * A batch is queried as soon as it has this many ids, without waiting for the window to end.
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * How long a lookup waits for a query run by another lookup before failing. Keep it well above
+     * the slowest lookup query, so it only fires when that query is stuck.
+     */
+    private Duration maxWait = Duration.ofSeconds(10);
+}
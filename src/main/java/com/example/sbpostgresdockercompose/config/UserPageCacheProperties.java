@@ -0,0 +1,39 @@
+package com.example.sbpostgresdockercompose.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Cache of serialized, precompressed {@code GET /api/v1/users} pages, bound to {@code app.page-cache.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.page-cache")
+public class UserPageCacheProperties {
+
+    private boolean enabled;
+
+    /**
+     * How long a page is served from the cache, i.e. how stale it may be.
+     */
+    private Duration ttl = Duration.ofSeconds(5);
+
+    /**
+     * Bytes of cached bodies, plain and compressed, before the least valuable pages are evicted.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Deflate level, 1 (fastest) to 9 (smallest). Paid once per cached page, not per request.
+     */
+    private int compressionLevel = 6;
+
+    /**
+     * Smaller bodies are only kept uncompressed; gzip does not pay off on them.
+     */
+    private DataSize compressionMinSize = DataSize.ofKilobytes(2);
+}
@@ -0,0 +1,124 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.service.ReactiveUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static com.example.sbpostgresdockercompose.controller.UserController.DEFAULT_PAGE_SIZE;
+
+/**
+ * Same contract as {@link UserController}, backed by R2DBC. Handlers return Mono/Flux, so the request
+ * thread is released while the database works; streamed responses are written one element per demand.
+ */
+@Tag(name = "Users (reactive)", description = "Non-blocking users management APIs")
+@RestController
+@RequestMapping("/api/v2/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+
+    @Operation(summary = "Get all users", description = "Retrieves a page of users ordered by ID, starting after the given cursor")
+    @Parameter(name = "after", description = "Cursor (ID) returned as 'nextCursor' by the previous page")
+    @Parameter(name = "limit", description = "Page size, at most 1000")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Found the users",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserPageResponse.class))
+            })
+    @GetMapping
+    public Mono<UserPageResponse> getAllUsers(@RequestParam(required = false) Long after,
+                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return reactiveUserService.getAllUsers(after, limit);
+    }
+
+    @Operation(summary = "Export all users", description = "Streams every user as NDJSON or server-sent events, with backpressure")
+    @ApiResponse(
+            responseCode = "200",
+            description = "All users",
+            content = {
+                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = UserDtoResponse.class)),
+                    @Content(mediaType = "text/event-stream", schema = @Schema(implementation = UserDtoResponse.class))
+            })
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserDtoResponse> exportUsers() {
+        return reactiveUserService.streamAllUsers();
+    }
+
+    @Operation(summary = "Get user by ID", description = "Retrieves a user by their ID")
+    @Parameter(name = "id", description = "User's ID", required = true)
+    @ApiResponse(
+            responseCode = "200",
+            description = "User found",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserDtoResponse.class))
+            })
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @GetMapping("/{id}")
+    public Mono<UserDtoResponse> getUserById(@PathVariable Long id) {
+        return reactiveUserService.getUserById(id);
+    }
+
+    @Operation(summary = "Create a user", description = "Creates a new user")
+    @Parameter(name = "userDtoRequest", description = "User DTO Request", required = true,
+            schema = @Schema(implementation = UserDtoRequest.class))
+    @ApiResponse(responseCode = "201", description = "User created",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserDtoResponse.class))})
+    @PostMapping
+    public Mono<ResponseEntity<UserDtoResponse>> createUser(@RequestBody UserDtoRequest userDtoRequest) {
+        return reactiveUserService.createUser(userDtoRequest)
+                .map(savedUser -> ResponseEntity.created(URI.create("/api/v2/users/" + savedUser.getId())).body(savedUser));
+    }
+
+    @Operation(summary = "Update a user", description = "Updates an existing user")
+    @Parameter(name = "id", description = "User's ID", required = true)
+    @Parameter(name = "userDtoRequest", description = "User DTO Request", required = true,
+            schema = @Schema(implementation = UserDtoRequest.class))
+    @ApiResponse(responseCode = "200", description = "User updated",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserDtoResponse.class))})
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @PutMapping("/{id}")
+    public Mono<UserDtoResponse> updateUser(@PathVariable Long id, @RequestBody UserDtoRequest userDtoRequest) {
+        return reactiveUserService.updateUser(id, userDtoRequest);
+    }
+
+    @Operation(summary = "Delete a user", description = "Deletes a user based on the provided ID")
+    @Parameter(description = "ID of the user to be deleted", required = true)
+    @ApiResponse(responseCode = "204", description = "User successfully deleted")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        return reactiveUserService.deleteUser(id)
+                .thenReturn(ResponseEntity.noContent().<Void>build());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.dto.UserChangePage;
+import com.example.sbpostgresdockercompose.service.UserChangeService;
+import com.example.sbpostgresdockercompose.service.UserChangeSink;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+@Tag(name = "User changes", description = "Feed of committed user changes (app.changes.enabled=true)")
+@RestController
+@RequestMapping("/api/v1/users/changes")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.changes", name = "enabled", havingValue = "true")
+public class UserChangeController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final UserChangeService userChangeService;
+    private final UserChangeProperties userChangeProperties;
+
+    @Operation(summary = "Stream user changes",
+            description = "Server-sent events, one per change, with the change cursor as event ID. Starts after "
+                    + "'since' (or Last-Event-ID on reconnect), or at the current end of the feed")
+    @Parameter(name = "since", description = "Cursor of the last change already seen")
+    @ApiResponse(responseCode = "200", description = "Change stream",
+            content = {@Content(
+                    mediaType = "text/event-stream",
+                    schema = @Schema(implementation = UserChange.class))})
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "410", description = "Cursor older than the retained changes")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) String since,
+                                    @RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(userChangeProperties.getStreamTimeout().toMillis());
+        userChangeService.stream(lastEventId != null ? lastEventId : since, new SseEmitterSink(emitter));
+        return emitter;
+    }
+
+    @Operation(summary = "Get user changes",
+            description = "Replays the changes after 'since'. Without it, returns no changes and the cursor of the "
+                    + "current end of the feed, to poll from")
+    @Parameter(name = "since", description = "Cursor returned as 'nextCursor' by the previous call")
+    @Parameter(name = "limit", description = "Page size, at most 1000")
+    @ApiResponse(responseCode = "200", description = "Changes found",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserChangePage.class))})
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "410", description = "Cursor older than the retained changes")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserChangePage> getChanges(@RequestParam(required = false) String since,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(userChangeService.getChanges(since, limit));
+    }
+
+    private record SseEmitterSink(SseEmitter emitter) implements UserChangeSink {
+
+        @Override
+        public void send(List<UserChange> changes) throws IOException {
+            if (changes.isEmpty()) {
+                // keeps proxies from closing an idle connection
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            for (UserChange change : changes) {
+                emitter.send(SseEmitter.event().id(change.getCursor()).data(change, MediaType.APPLICATION_JSON));
+            }
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.example.sbpostgresdockercompose.controller;
 
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.repository.CopyFormat;
+import com.example.sbpostgresdockercompose.service.UserCopyService;
 import com.example.sbpostgresdockercompose.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -11,6 +19,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,9 +29,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 
@@ -30,19 +48,131 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    public static final String DEFAULT_PAGE_SIZE = "50";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserService userService;
+    private final UserCopyService userCopyService;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "Get all users", description = "Retrieves a list of all users")
+    @Operation(summary = "Get all users", description = "Retrieves a page of users ordered by ID, starting after the given cursor")
+    @Parameter(name = "after", description = "Cursor (ID) returned as 'nextCursor' by the previous page")
+    @Parameter(name = "limit", description = "Page size, at most 1000")
     @ApiResponse(
             responseCode = "200",
             description = "Found the users",
             content = {@Content(
                     mediaType = "application/json",
-                    array = @ArraySchema(schema = @Schema(implementation = UserDtoResponse.class)))
+                    schema = @Schema(implementation = UserPageResponse.class))
             })
+    @ApiResponse(responseCode = "304", description = "Page unchanged since the If-None-Match ETag")
     @GetMapping
-    public ResponseEntity<List<UserDtoResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<UserPageResponse> getAllUsers(@RequestParam(required = false) Long after,
+                                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                        WebRequest webRequest) {
+        String eTag = UserETags.ofPage(userService.getAllUsersDigest(after, limit));
+        if (webRequest.checkNotModified(eTag)) {
+            // 304 and the ETag are already set; the page is never loaded
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(userService.getAllUsers(after, limit));
+    }
+
+    @Operation(summary = "Get users by IDs", description = "Retrieves up to 1000 users in one query, in request order; unknown IDs are left out")
+    @Parameter(name = "ids", description = "Comma-separated user IDs", example = "1,2,3")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Found the users",
+            content = {@Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = UserDtoResponse.class)))
+            })
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<UserDtoResponse>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
+    @Operation(summary = "Export all users", description = "Streams every user as one JSON array with constant memory")
+    @ApiResponse(
+            responseCode = "200",
+            description = "All users",
+            content = {@Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = UserDtoResponse.class)))
+            })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userService.streamAllUsers(user -> writeUser(generator, user));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Export all users as CSV", description = "Streams every user with COPY, as CSV with a header row")
+    @ApiResponse(responseCode = "200", description = "All users (id, name, email, version)",
+            content = {@Content(mediaType = TEXT_CSV_VALUE)})
+    @GetMapping(value = "/export", params = "format=csv", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsersCsv() {
+        return copyExport(CopyFormat.CSV, MediaType.parseMediaType(TEXT_CSV_VALUE), "users.csv");
+    }
+
+    @Operation(summary = "Export all users in Postgres binary COPY format",
+            description = "Streams every user with COPY (id, name, email, version), loadable with COPY ... FROM ... (FORMAT binary)")
+    @ApiResponse(responseCode = "200", description = "All users",
+            content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)})
+    @GetMapping(value = "/export", params = "format=binary", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsersBinary() {
+        return copyExport(CopyFormat.BINARY, MediaType.APPLICATION_OCTET_STREAM, "users.bin");
+    }
+
+    @Operation(summary = "Import users from CSV",
+            description = "Loads users with COPY from a CSV body with a header row and name, email columns. "
+                    + "Rows with an existing or repeated email, or an invalid name or email, are skipped and counted")
+    @ApiResponse(responseCode = "200", description = "Import counts",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserImportResponse.class))})
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<UserImportResponse> importUsersCsv(InputStream body) {
+        return ResponseEntity.ok(userCopyService.importUsers(CopyFormat.CSV, body));
+    }
+
+    @Operation(summary = "Import users in Postgres binary COPY format",
+            description = "Loads users with COPY from a binary COPY body with name, email text columns")
+    @ApiResponse(responseCode = "200", description = "Import counts",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserImportResponse.class))})
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UserImportResponse> importUsersBinary(InputStream body) {
+        return ResponseEntity.ok(userCopyService.importUsers(CopyFormat.BINARY, body));
+    }
+
+    @Operation(summary = "Search users", description = "Finds users by exact email and/or name prefix")
+    @Parameter(name = "email", description = "Exact email")
+    @Parameter(name = "namePrefix", description = "Start of the user's name")
+    @Parameter(name = "limit", description = "Maximum number of results, at most 1000")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Matching users, ordered by ID",
+            content = {@Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = UserDtoResponse.class)))
+            })
+    @ApiResponse(responseCode = "400", description = "Neither email nor namePrefix given")
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDtoResponse>> searchUsers(@RequestParam(required = false) String email,
+                                                             @RequestParam(required = false) String namePrefix,
+                                                             @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(userService.searchUsers(email, namePrefix, limit));
     }
 
     @Operation(summary = "Get user by ID", description = "Retrieves a user by their ID")
@@ -54,10 +184,14 @@ public class UserController {
                     mediaType = "application/json",
                     schema = @Schema(implementation = UserDtoResponse.class))
             })
+    @ApiResponse(responseCode = "304", description = "User unchanged since the If-None-Match ETag")
     @ApiResponse(responseCode = "404", description = "User not found")
     @GetMapping("/{id}")
     public ResponseEntity<UserDtoResponse> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+        UserDtoResponse user = userService.getUserById(id);
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(user))
+                .body(user);
     }
 
     @Operation(summary = "Create a user", description = "Creates a new user")
@@ -71,7 +205,9 @@ public class UserController {
     public ResponseEntity<UserDtoResponse> createUser(@RequestBody UserDtoRequest userDtoRequest) {
         UserDtoResponse savedUser = userService.createUser(userDtoRequest);
         URI uri = URI.create("/api/v1/users/" + savedUser.getId());
-        return ResponseEntity.created(uri).body(savedUser);
+        return ResponseEntity.created(uri)
+                .eTag(UserETags.of(savedUser))
+                .body(savedUser);
     }
 
     @Operation(summary = "Update a user", description = "Updates an existing user")
@@ -82,19 +218,77 @@ public class UserController {
             content = {@Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = UserDtoResponse.class))})
+    @Parameter(name = HttpHeaders.IF_MATCH, description = "Only update if the user still has this ETag")
     @ApiResponse(responseCode = "404", description = "User not found")
+    @ApiResponse(responseCode = "412", description = "User changed since the If-Match ETag")
     @PutMapping("/{id}")
-    public ResponseEntity<UserDtoResponse> updateUser(@PathVariable Long id, @RequestBody UserDtoRequest userDtoRequest) {
-        return ResponseEntity.ok(userService.updateUser(id, userDtoRequest));
+    public ResponseEntity<UserDtoResponse> updateUser(@PathVariable Long id, @RequestBody UserDtoRequest userDtoRequest,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDtoResponse updatedUser = userService.updateUser(id, userDtoRequest, UserETags.versionFromIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(updatedUser))
+                .body(updatedUser);
     }
 
     @Operation(summary = "Delete a user", description = "Deletes a user based on the provided ID")
     @Parameter(description = "ID of the user to be deleted", required = true)
     @ApiResponse(responseCode = "204", description = "User successfully deleted")
+    @Parameter(name = HttpHeaders.IF_MATCH, description = "Only delete if the user still has this ETag")
     @ApiResponse(responseCode = "404", description = "User not found")
+    @ApiResponse(responseCode = "412", description = "User changed since the If-Match ETag")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.deleteUser(id, UserETags.versionFromIfMatch(ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "Create users in batch", description = "Creates up to 1000 users in one transaction")
+    @ApiResponse(responseCode = "200", description = "Per-item results, in request order",
+            content = {@Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = UserBatchItemResponse.class)))})
+    @ApiResponse(responseCode = "400", description = "Batch too large")
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserBatchItemResponse>> createUsers(@RequestBody List<UserDtoRequest> userDtoRequests) {
+        return ResponseEntity.ok(userService.createUsers(userDtoRequests));
+    }
+
+    @Operation(summary = "Update users in batch", description = "Updates up to 1000 existing users in one transaction")
+    @ApiResponse(responseCode = "200", description = "Per-item results, in request order",
+            content = {@Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = UserBatchItemResponse.class)))})
+    @ApiResponse(responseCode = "400", description = "Batch too large")
+    @PutMapping("/batch")
+    public ResponseEntity<List<UserBatchItemResponse>> updateUsers(@RequestBody List<UserBatchUpdateRequest> userBatchUpdateRequests) {
+        return ResponseEntity.ok(userService.updateUsers(userBatchUpdateRequests));
+    }
+
+    @Operation(summary = "Delete users in batch", description = "Deletes up to 1000 users by ID in one statement")
+    @ApiResponse(responseCode = "200", description = "Per-item results, in request order",
+            content = {@Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = UserBatchItemResponse.class)))})
+    @ApiResponse(responseCode = "400", description = "Batch too large")
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<UserBatchItemResponse>> deleteUsers(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(userService.deleteUsers(ids));
+    }
+
+    private ResponseEntity<StreamingResponseBody> copyExport(CopyFormat format, MediaType mediaType, String filename) {
+        StreamingResponseBody body = outputStream -> userCopyService.exportUsers(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private void writeUser(JsonGenerator generator, UserDtoResponse user) {
+        try {
+            generator.writeObject(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+
+/**
+ * Strong entity tags for users and user pages. A user's tag is its version; a page's tag is a
+ * digest of the ids and versions of its rows, queried on its own so that a 304 never loads the page.
+ */
+final class UserETags {
+
+    // an If-Match value no version can satisfy (weak or malformed tags never match strongly)
+    static final long NO_MATCH = -1L;
+
+    private UserETags() {
+    }
+
+    static String of(UserDtoResponse user) {
+        return "\"" + user.getVersion() + "\"";
+    }
+
+    static String ofPage(long digest) {
+        return "\"p" + Long.toHexString(digest) + "\"";
+    }
+
+    /**
+     * Version named by an {@code If-Match} header holding a single entity tag; {@code null} when
+     * the header is absent or {@code *} (the write then only requires the user to exist).
+     */
+    static Long versionFromIfMatch(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_MATCH;
+        }
+        try {
+            return Long.parseLong(tag, 1, tag.length() - 1, 10);
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+import com.example.sbpostgresdockercompose.service.UserIngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.UUID;
+
+@Tag(name = "User ingestion", description = "Asynchronous user creation (app.ingestion.enabled=true)")
+@RestController
+@RequestMapping("/api/v1/users/ingest")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.ingestion", name = "enabled", havingValue = "true")
+public class UserIngestionController {
+
+    private final UserIngestionService userIngestionService;
+
+    @Operation(summary = "Submit a user", description = "Queues a user for creation and returns a tracking ID")
+    @ApiResponse(responseCode = "202", description = "User queued",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserIngestionStatus.class))})
+    @ApiResponse(responseCode = "429", description = "Queue full, retry after the Retry-After delay")
+    @PostMapping
+    public ResponseEntity<UserIngestionStatus> submitUser(@RequestBody UserDtoRequest userDtoRequest) {
+        UserIngestionStatus status = userIngestionService.submit(userDtoRequest);
+        URI uri = URI.create("/api/v1/users/ingest/" + status.getTrackingId());
+        return ResponseEntity.accepted()
+                .location(uri)
+                .body(status);
+    }
+
+    @Operation(summary = "Get ingestion status", description = "Retrieves the status of a submitted user")
+    @Parameter(name = "trackingId", description = "Tracking ID returned on submission", required = true)
+    @ApiResponse(responseCode = "200", description = "Status found",
+            content = {@Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = UserIngestionStatus.class))})
+    @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID")
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<UserIngestionStatus> getStatus(@PathVariable UUID trackingId) {
+        return ResponseEntity.of(userIngestionService.getStatus(trackingId));
+    }
+}
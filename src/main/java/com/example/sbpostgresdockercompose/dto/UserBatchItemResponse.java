@@ -0,0 +1,30 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Schema(description = "Result of one item of a batch request")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class UserBatchItemResponse {
+    @Schema(description = "Position of the item in the request array", example = "0")
+    private int index;
+
+    @Schema(description = "User ID", example = "123")
+    private Long id;
+
+    @Schema(description = "HTTP status the item would have had as a single request", example = "201")
+    private int status;
+
+    @Schema(description = "Error message, null on success", example = "User not found with id= 123")
+    private String message;
+}
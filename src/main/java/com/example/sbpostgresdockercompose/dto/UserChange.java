@@ -0,0 +1,40 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Schema(description = "A committed change to a user; fetch the user by ID for its current state")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class UserChange {
+    @Schema(description = "Position of this change in the feed, to pass as 'since' to resume after it",
+            example = "7421-1089")
+    private String cursor;
+
+    @Schema(description = "ID of the changed user", example = "123")
+    private Long userId;
+
+    @Schema(description = "What happened to the user", example = "UPDATED")
+    private Operation operation;
+
+    @Schema(description = "User version after the change (before it, for DELETED)", example = "3")
+    private Long version;
+
+    @Schema(description = "When the change was written")
+    private Instant changedAt;
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Schema(description = "Changes after a cursor, in feed order")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class UserChangePage {
+    @Schema(description = "Changes on this page, oldest first")
+    private List<UserChange> changes;
+
+    @Schema(description = "Cursor to pass as 'since' on the next call; unchanged when there was nothing new",
+            example = "7421-1089")
+    private String nextCursor;
+}
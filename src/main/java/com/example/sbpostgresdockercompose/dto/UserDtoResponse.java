@@ -24,4 +24,7 @@ public class UserDtoResponse {
 
     @Schema(description = "User's email", example = "john@example.com")
     private String email;
+
+    @Schema(description = "Version, incremented on every change; sent as the user's ETag", example = "0")
+    private Long version;
 }
@@ -0,0 +1,58 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link UserDtoResponse} field by field instead of through Jackson's bean serializer:
+ * no property introspection or reflective getter calls per element, and the field names are
+ * pre-encoded once. Used for every format the application's ObjectMapper backs (JSON, Smile,
+ * CBOR), including the streaming export. The output must stay identical to the bean
+ * serializer's: same field order, nulls included.
+ */
+@JsonComponent
+public class UserDtoResponseSerializer extends StdSerializer<UserDtoResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public UserDtoResponseSerializer() {
+        super(UserDtoResponse.class);
+    }
+
+    @Override
+    public void serialize(UserDtoResponse user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(user, 4);
+        writeNumberField(generator, ID, user.getId());
+        writeStringField(generator, NAME, user.getName());
+        writeStringField(generator, EMAIL, user.getEmail());
+        writeNumberField(generator, VERSION, user.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumberField(JsonGenerator generator, SerializableString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeStringField(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Schema(description = "Outcome of a bulk import")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class UserImportResponse {
+    @Schema(description = "Rows read from the request body", example = "1000")
+    private long received;
+
+    @Schema(description = "Users created", example = "990")
+    private long imported;
+
+    @Schema(description = "Rows skipped because the email already exists or repeats in the file", example = "8")
+    private long duplicates;
+
+    @Schema(description = "Rows skipped because the name or email is missing, too long or malformed", example = "2")
+    private long invalid;
+}
@@ -0,0 +1,36 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+@Schema(description = "Progress of an asynchronously ingested user")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class UserIngestionStatus {
+    @Schema(description = "Tracking ID returned when the user was submitted")
+    private UUID trackingId;
+
+    @Schema(description = "PENDING until written, then CREATED or FAILED", example = "CREATED")
+    private State state;
+
+    @Schema(description = "ID of the created user, null until CREATED", example = "123")
+    private Long userId;
+
+    @Schema(description = "Why the user was not created, null unless FAILED")
+    private String message;
+
+    public enum State {
+        PENDING, CREATED, FAILED
+    }
+}
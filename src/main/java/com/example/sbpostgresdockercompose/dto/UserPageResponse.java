@@ -0,0 +1,26 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Schema(description = "Page of users ordered by ID")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class UserPageResponse {
+    @Schema(description = "Users on this page")
+    private List<UserDtoResponse> content;
+
+    @Schema(description = "Cursor to pass as 'after' to get the next page, null on the last page", example = "123")
+    private Long nextCursor;
+}
@@ -0,0 +1,13 @@
+package com.example.sbpostgresdockercompose.exception;
+
+/**
+ * Thrown when a request is well-formed but asks for something the API does not allow (a batch
+ * over the size limit, a search without criteria, an unreadable cursor). Its message is meant for
+ * the client and is returned as the problem detail, so no stack trace is captured.
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sbpostgresdockercompose.exception;
+
+/**
+ * Thrown when a change feed cursor points before changes the retention job has already deleted,
+ * so resuming from it would silently skip them. Expected, so no stack trace is captured.
+ */
+public class ChangeCursorExpiredException extends RuntimeException {
+
+    public ChangeCursorExpiredException(String cursor) {
+        super("Change cursor " + cursor + " is older than the retained changes; reload the users and "
+                + "continue from the end of the feed", null, false, false);
+    }
+}
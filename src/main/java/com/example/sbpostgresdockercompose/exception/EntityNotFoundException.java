@@ -1,7 +1,18 @@
 package com.example.sbpostgresdockercompose.exception;
 
+/**
+ * Thrown when a requested entity does not exist. It is an expected outcome (a 404), not a bug,
+ * so no stack trace is captured: filling it in dominates the cost of the not-found path.
+ */
 public class EntityNotFoundException extends RuntimeException {
+
+    public static final String USER_NOT_FOUND = "User not found with id= ";
+
     public EntityNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+    }
+
+    public static EntityNotFoundException userNotFound(Long id) {
+        return new EntityNotFoundException(USER_NOT_FOUND + id);
     }
 }
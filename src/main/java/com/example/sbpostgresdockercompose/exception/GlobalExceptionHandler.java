@@ -1,37 +1,126 @@
 package com.example.sbpostgresdockercompose.exception;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.Setter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps exceptions to RFC 7807 {@link ProblemDetail} responses ({@code application/problem+json}).
+ * Spring MVC's own exceptions (type mismatches, unsupported methods, ...) are handled by
+ * {@link ResponseEntityExceptionHandler}. Every handled error is counted as {@code users.errors}.
+ */
+@Slf4j
 @RestControllerAdvice
-public class GlobalExceptionHandler {
+@RequiredArgsConstructor
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private static final String ERRORS_COUNTER = "users.errors";
+    private static final String CONFLICT_DETAIL = "The request conflicts with existing data";
+    private static final String CONCURRENT_MODIFICATION_DETAIL = "The data was modified concurrently, retry the request";
+    private static final String INGESTION_RETRY_AFTER_SECONDS = "1";
+
+    // the 500 body never varies and must not echo the exception, so it is serialized once
+    private static final byte[] INTERNAL_SERVER_ERROR_BODY = ("{\"type\":\"about:blank\","
+            + "\"title\":\"Internal Server Error\",\"status\":500,\"detail\":\"Unexpected error\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final MeterRegistry meterRegistry;
+    // one counter per exception type and status, so the error path does not rebuild meter ids
+    private final Map<ErrorKey, Counter> errorCounters = new ConcurrentHashMap<>();
 
     @ExceptionHandler(EntityNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleEntityNotFoundException(EntityNotFoundException e) {
+    public ResponseEntity<ProblemDetail> handleEntityNotFoundException(EntityNotFoundException e) {
+        return problem(e, HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ProblemDetail> handlePreconditionFailedException(PreconditionFailedException e) {
+        return problem(e, HttpStatus.PRECONDITION_FAILED, e.getMessage());
+    }
+
+    @ExceptionHandler(ChangeCursorExpiredException.class)
+    public ResponseEntity<ProblemDetail> handleChangeCursorExpiredException(ChangeCursorExpiredException e) {
+        return problem(e, HttpStatus.GONE, e.getMessage());
+    }
+
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<ProblemDetail> handleIngestionQueueFullException(IngestionQueueFullException e) {
+        countError(e, HttpStatus.TOO_MANY_REQUESTS);
         return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(new ErrorResponse(HttpStatus.NOT_FOUND.toString(), e.getMessage(), e.getCause()));
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, INGESTION_RETRY_AFTER_SECONDS)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+
+    // only our own validation errors: an IllegalArgumentException from a library or a bug is a 500
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ProblemDetail> handleBadRequestException(BadRequestException e) {
+        return problem(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ProblemDetail> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        log.debug("Data integrity violation", e);
+        return problem(e, HttpStatus.CONFLICT, CONFLICT_DETAIL);
+    }
+
+    // a @Version check failed on flush (e.g. a batch update racing another write)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.debug("Optimistic locking failure", e);
+        return problem(e, HttpStatus.CONFLICT, CONCURRENT_MODIFICATION_DETAIL);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleException(Exception e) {
+    public ResponseEntity<byte[]> handleUnexpectedException(Exception e) {
+        log.error("Unexpected error", e);
+        countError(e, HttpStatus.INTERNAL_SERVER_ERROR);
         return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.toString(), e.getMessage(), e.getCause()));
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(INTERNAL_SERVER_ERROR_BODY);
     }
 
-    @Getter
-    @Setter
-    @AllArgsConstructor
-    public static class ErrorResponse {
-        private String code;
-        private String message;
-        private Throwable cause;
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception e, Object body, HttpHeaders headers,
+                                                             HttpStatusCode statusCode, WebRequest request) {
+        countError(e, statusCode);
+        return super.handleExceptionInternal(e, body, headers, statusCode, request);
     }
 
+    private ResponseEntity<ProblemDetail> problem(Exception e, HttpStatus status, String detail) {
+        countError(e, status);
+        // a new instance per response: Spring fills in "instance" with the request path
+        return ResponseEntity
+                .status(status)
+                .body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+
+    private void countError(Exception e, HttpStatusCode status) {
+        errorCounters.computeIfAbsent(new ErrorKey(e.getClass(), status.value()), key -> Counter.builder(ERRORS_COUNTER)
+                        .tag("exception", key.type().getSimpleName())
+                        .tag("status", String.valueOf(key.status()))
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private record ErrorKey(Class<?> type, int status) {
+    }
 }
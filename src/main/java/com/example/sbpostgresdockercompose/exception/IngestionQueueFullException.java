@@ -0,0 +1,12 @@
+package com.example.sbpostgresdockercompose.exception;
+
+/**
+ * Thrown when the asynchronous ingestion queue cannot take another request; the client should
+ * retry later. Backpressure is expected under load, so no stack trace is captured.
+ */
+public class IngestionQueueFullException extends RuntimeException {
+
+    public IngestionQueueFullException(String message) {
+        super(message, null, false, false);
+    }
+}
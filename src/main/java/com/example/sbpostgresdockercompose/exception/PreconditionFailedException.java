@@ -0,0 +1,16 @@
+package com.example.sbpostgresdockercompose.exception;
+
+/**
+ * Thrown when a conditional write ({@code If-Match}) names a version the entity no longer has.
+ * Like {@link EntityNotFoundException} it is an expected outcome, so no stack trace is captured.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message, null, false, false);
+    }
+
+    public static PreconditionFailedException userVersionMismatch(Long id, Long expectedVersion) {
+        return new PreconditionFailedException("User with id= " + id + " is no longer at version " + expectedVersion);
+    }
+}
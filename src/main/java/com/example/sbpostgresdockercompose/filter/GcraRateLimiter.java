@@ -0,0 +1,66 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets in the form of the generic cell rate algorithm (GCRA).
+ * <p>
+ * Instead of a token count and a refill time, each client has one "theoretical arrival time": the
+ * instant at which its bucket would be full again. Admitting a request moves it cost * interval
+ * into the future; a request is refused if that would put it more than burst intervals ahead of
+ * now. That single long is updated with a compare-and-set, so concurrent requests of one client
+ * never wait on a lock, and clients share nothing but the Caffeine map, whose locks are striped.
+ * Clients idle long enough to have a full bucket are dropped from the map.
+ */
+class GcraRateLimiter {
+
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+    private static final long MAX_CLIENTS = 100_000;
+
+    private final ConcurrentMap<String, AtomicLong> arrivalTimes;
+    private final LongSupplier nanoClock;
+
+    GcraRateLimiter(LongSupplier nanoClock) {
+        this.arrivalTimes = Caffeine.newBuilder()
+                .expireAfterAccess(IDLE_EXPIRY)
+                .maximumSize(MAX_CLIENTS)
+                .<String, AtomicLong>build()
+                .asMap();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns 0 if the request is admitted, otherwise how many nanoseconds until it would be.
+     * A cost above the burst is charged as the burst, so that every request can eventually pass.
+     */
+    long tryAcquire(String client, int cost, Limit limit) {
+        long interval = limit.intervalNanos();
+        long tolerance = interval * limit.burst();
+        long increment = interval * Math.min(cost, limit.burst());
+        AtomicLong arrivalTime = arrivalTimes.computeIfAbsent(client, key -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + increment;
+            long wait = next - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    record Limit(double rate, int burst) {
+
+        long intervalNanos() {
+            return (long) (1_000_000_000L / rate);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits concurrent requests to a limit derived from their latency, after Netflix's Gradient2.
+ * <p>
+ * Past the point where the database or the connection pool saturates, more concurrency only adds
+ * queueing: latency rises while throughput does not. Each completed request compares its latency
+ * with a long-term average; while they are close the limit grows by about its square root, and
+ * when requests get slower than {@code rttTolerance} times the average it shrinks in proportion
+ * (at most by half per step, and smoothed). Requests over the limit are refused at once instead
+ * of queueing for a connection. The limit only grows while it is actually being used.
+ */
+class GradientConcurrencyLimiter {
+
+    // the long-term average spans about this many requests
+    private static final int LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // only updated under the lock; samples arriving while it is held are skipped
+    private final ReentrantLock lock = new ReentrantLock();
+    private double longRtt;
+
+    GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // the request ended without a usable latency (error, or handed over to an async stream)
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long rttNanos) {
+        int concurrency = inFlight.getAndDecrement();
+        if (rttNanos <= 0 || !lock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, concurrency);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double rtt, int concurrency) {
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / LONG_WINDOW;
+        // after a lasting slowdown the average has followed latency up; pull it back down so the
+        // limit can recover once latency does
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        double current = limit;
+        if (concurrency < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(newLimit, maxLimit));
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore.IdempotencyRecord;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Makes JSON POST and PUT requests under {@code /api/v1/users} safe to retry with an
+ * {@code Idempotency-Key} header.
+ * <p>
+ * The first request with a key claims it in the {@link IdempotencyStore}, runs, and its response is
+ * stored. A retry with the same key and the same body gets that response again, marked
+ * {@code Idempotent-Replayed: true}, without running the write. A retry arriving while the first
+ * is still running gets 409 with Retry-After; reusing a key for a different body gets 422. Server
+ * errors, 429s and 409s are not stored, so their retries run again: a 409 may come from a
+ * {@code @Version} check that lost a race, which a retry is expected to win.
+ * <p>
+ * Keys are scoped to the method and path. Requests without the header, or without a JSON body
+ * (e.g. {@code /import}), are not affected.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final String PATH_PREFIX = "/api/v1/users";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String KEY_TOO_LONG = "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters";
+    private static final String IN_PROGRESS = "A request with this Idempotency-Key is still being processed";
+    private static final String KEY_REUSED = "This Idempotency-Key was already used for a different request";
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter inProgress;
+    private final Counter mismatched;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.executed = outcomeCounter(meterRegistry, "executed");
+        this.replayed = outcomeCounter(meterRegistry, "replayed");
+        this.inProgress = outcomeCounter(meterRegistry, "in_progress");
+        this.mismatched = outcomeCounter(meterRegistry, "mismatched");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY) == null || !request.getRequestURI().startsWith(PATH_PREFIX)) {
+            return true;
+        }
+        if (!HttpMethod.POST.matches(request.getMethod()) && !HttpMethod.PUT.matches(request.getMethod())) {
+            return true;
+        }
+        try {
+            return request.getContentType() == null
+                    || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        } catch (IllegalArgumentException e) {
+            // left for Spring MVC to reject
+            return true;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            problem(response, HttpStatus.BAD_REQUEST, KEY_TOO_LONG);
+            return;
+        }
+        CachedBodyRequest cachedBodyRequest = new CachedBodyRequest(request, request.getInputStream().readAllBytes());
+        String key = request.getMethod() + ' ' + request.getRequestURI() + ' ' + idempotencyKey;
+        byte[] fingerprint = fingerprint(request.getQueryString(), cachedBodyRequest.body);
+
+        UUID claimToken = UUID.randomUUID();
+        IdempotencyRecord existing = idempotencyStore.claim(key, claimToken, fingerprint);
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint(), fingerprint)) {
+                mismatched.increment();
+                problem(response, HttpStatus.UNPROCESSABLE_ENTITY, KEY_REUSED);
+            } else if (existing.response() == null) {
+                inProgress.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+                problem(response, HttpStatus.CONFLICT, IN_PROGRESS);
+            } else {
+                replayed.increment();
+                replay(existing.response(), response);
+            }
+            return;
+        }
+
+        executed.increment();
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(cachedBodyRequest, responseWrapper);
+            int status = responseWrapper.getStatus();
+            if (status < HttpStatus.INTERNAL_SERVER_ERROR.value() && status != HttpStatus.TOO_MANY_REQUESTS.value()
+                    && status != HttpStatus.CONFLICT.value()) {
+                idempotencyStore.complete(key, claimToken, new StoredResponse(status, responseWrapper.getContentType(),
+                        response.getHeader(HttpHeaders.LOCATION), response.getHeader(HttpHeaders.ETAG),
+                        responseWrapper.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(key, claimToken);
+            }
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private static void replay(StoredResponse storedResponse, HttpServletResponse response) throws IOException {
+        response.setStatus(storedResponse.status());
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        if (storedResponse.contentType() != null) {
+            response.setContentType(storedResponse.contentType());
+        }
+        if (storedResponse.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, storedResponse.location());
+        }
+        if (storedResponse.eTag() != null) {
+            response.setHeader(HttpHeaders.ETAG, storedResponse.eTag());
+        }
+        byte[] body = storedResponse.body();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void problem(HttpServletResponse response, HttpStatus status, String detail) throws IOException {
+        ProblemResponses.write(response, objectMapper, status, detail);
+    }
+
+    private static byte[] fingerprint(String queryString, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null) {
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            // every JDK has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("users.idempotency.requests")
+                .description("Requests with an Idempotency-Key, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // the body is read up front for the fingerprint, then served again to the handler
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already in memory: it is available at once and reads never block
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+
+import java.io.IOException;
+
+/**
+ * RFC 7807 responses written by filters, which run outside Spring MVC and its exception handler.
+ */
+final class ProblemResponses {
+
+    private ProblemResponses() {
+    }
+
+    static void write(HttpServletResponse response, ObjectMapper objectMapper, HttpStatus status, String detail)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ProblemDetail.forStatusAndDetail(status, detail));
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.config.RateLimitProperties;
+import com.example.sbpostgresdockercompose.config.RateLimitProperties.Category;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for {@code /api/**}, in two steps.
+ * <p>
+ * First, a {@link GradientConcurrencyLimiter} bounds the requests in flight across all clients.
+ * It lowers the bound as latency rises, which happens when requests start queueing for the
+ * connection pool, and refuses the excess with 503 straight away instead of letting everyone queue.
+ * An async request (export, reactive endpoints) holds its slot until it completes. Change streams
+ * (SSE) are not counted: they hold no connection while idle and stay open for many minutes.
+ * <p>
+ * Second, each client has a {@link GcraRateLimiter token bucket}, and each request takes tokens by
+ * what it costs the database: a user by ID is cheap, a page costs per 100 rows requested, an export
+ * or import costs as much as a whole burst. A client over its rate gets 429 with the Retry-After at
+ * which the request would pass. One client flooding the list endpoint therefore cannot take
+ * capacity from the others. Checking the rate second means a request refused with 503 costs its
+ * client nothing. Clients are told apart by API key only for the keys configured in
+ * {@code app.rate-limit.clients}; anyone else, whatever key they send, shares the bucket of their
+ * remote address. Behind a proxy that address is the proxy's unless
+ * {@code server.forward-headers-strategy} resolves the forwarded one.
+ */
+@Component
+@Order(RateLimitFilter.ORDER)
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // right after the observation filter, so refused requests still show up in http.server.requests
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+    private static final String PATH_PREFIX = "/api/";
+    private static final String CLIENT_KEY_PREFIX = "key:";
+    private static final String CLIENT_ADDRESS_PREFIX = "address:";
+    private static final int ROWS_PER_COST_UNIT = 100;
+    private static final String OVERLOADED_RETRY_AFTER_SECONDS = "1";
+    private static final String RATE_LIMITED = "Rate limit exceeded, retry later";
+    private static final String OVERLOADED = "The service is overloaded, retry later";
+
+    private final ObjectMapper objectMapper;
+    private final String apiKeyHeader;
+    private final GcraRateLimiter.Limit defaultLimit;
+    private final Map<String, GcraRateLimiter.Limit> clientLimits = new HashMap<>();
+    private final Map<Category, Integer> costs;
+    private final GcraRateLimiter rateLimiter = new GcraRateLimiter(System::nanoTime);
+    private final GradientConcurrencyLimiter concurrencyLimiter;
+
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    public RateLimitFilter(RateLimitProperties rateLimitProperties, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.apiKeyHeader = rateLimitProperties.getApiKeyHeader();
+        this.defaultLimit = new GcraRateLimiter.Limit(rateLimitProperties.getRate(), rateLimitProperties.getBurst());
+        rateLimitProperties.getClients().forEach((apiKey, client) ->
+                clientLimits.put(apiKey, new GcraRateLimiter.Limit(client.getRate(), client.getBurst())));
+        this.costs = rateLimitProperties.getCosts();
+        RateLimitProperties.Concurrency concurrency = rateLimitProperties.getConcurrency();
+        this.concurrencyLimiter = concurrency.isEnabled()
+                ? new GradientConcurrencyLimiter(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                        concurrency.getMaxLimit(), concurrency.getRttTolerance())
+                : null;
+
+        this.rateLimited = rejectedCounter(meterRegistry, "rate_limit");
+        this.overloaded = rejectedCounter(meterRegistry, "concurrency_limit");
+        if (concurrencyLimiter != null) {
+            Gauge.builder("users.concurrency.limit", concurrencyLimiter, GradientConcurrencyLimiter::getLimit)
+                    .description("Current limit of requests in flight")
+                    .register(meterRegistry);
+            Gauge.builder("users.concurrency.in.flight", concurrencyLimiter, GradientConcurrencyLimiter::getInFlight)
+                    .description("Requests in flight")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean counted = concurrencyLimiter != null && !isEventStream(request);
+        if (counted && !concurrencyLimiter.tryAcquire()) {
+            overloaded.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, OVERLOADED_RETRY_AFTER_SECONDS);
+            ProblemResponses.write(response, objectMapper, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+            return;
+        }
+
+        String apiKey = request.getHeader(apiKeyHeader);
+        GcraRateLimiter.Limit clientLimit = StringUtils.hasText(apiKey) ? clientLimits.get(apiKey) : null;
+        long waitNanos = clientLimit != null
+                ? rateLimiter.tryAcquire(CLIENT_KEY_PREFIX + apiKey, cost(request), clientLimit)
+                : rateLimiter.tryAcquire(CLIENT_ADDRESS_PREFIX + request.getRemoteAddr(), cost(request), defaultLimit);
+        if (waitNanos > 0) {
+            if (counted) {
+                concurrencyLimiter.release();
+            }
+            rateLimited.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            ProblemResponses.write(response, objectMapper, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED);
+            return;
+        }
+
+        if (!counted) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        long rttNanos = 0;
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener());
+                async = true;
+            } else if (response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                // failures are not latency samples
+                rttNanos = System.nanoTime() - start;
+            }
+        } finally {
+            // an async request is released by its listener
+            if (!async) {
+                if (rttNanos > 0) {
+                    concurrencyLimiter.release(rttNanos);
+                } else {
+                    concurrencyLimiter.release();
+                }
+            }
+        }
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    int cost(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.endsWith("/export") || path.endsWith("/import")) {
+            return costs.get(Category.SCAN);
+        }
+        if (path.endsWith("/batch")) {
+            return costs.get(Category.BATCH);
+        }
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return costs.get(Category.WRITE);
+        }
+        if (path.endsWith("/search")) {
+            return costs.get(Category.SEARCH);
+        }
+        if (path.endsWith("/users")) {
+            String ids = request.getParameter("ids");
+            int rows = ids != null
+                    ? StringUtils.countOccurrencesOf(ids, ",") + 1
+                    : parseOrDefault(request.getParameter("limit"), ROWS_PER_COST_UNIT);
+            return costs.get(Category.PAGE) * Math.max(1, (rows + ROWS_PER_COST_UNIT - 1) / ROWS_PER_COST_UNIT);
+        }
+        return costs.get(Category.READ);
+    }
+
+    private static int parseOrDefault(String value, int defaultValue) {
+        try {
+            return value != null ? Math.max(0, Integer.parseInt(value.trim())) : defaultValue;
+        } catch (NumberFormatException e) {
+            // left for Spring MVC to reject
+            return defaultValue;
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("users.requests.rejected")
+                .description("Requests refused before reaching a controller")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // gives the slot back once, when the async request ends; its duration includes however long the
+    // client took to read it, so it is not a latency sample
+    private final class ReleasingAsyncListener implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the request was dispatched and started async again: keep listening
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrencyLimiter.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.config.UserPageCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves hot pages of {@code GET /api/v1/users} from memory, already serialized and gzipped.
+ * <p>
+ * Pollers keep asking for the same pages; each one is built (query, serialization, compression)
+ * once per TTL and then costs a hash lookup and a copy. Pages are keyed by query string and Accept
+ * header, and keep their ETag, so conditional requests still get 304. The JSON, Smile and CBOR
+ * forms of a page are different responses to shared caches: they are sent with {@code Vary: Accept}
+ * and the binary ones get their own ETag, so a cache never confirms one form for another. A page may be up to
+ * {@code app.page-cache.ttl} old, which is why the cache is opt-in; reads served by a replica can
+ * already be that stale. Clients that do not accept gzip get the cached plain body. Because the
+ * Content-Encoding is set here, the server's own compression leaves these responses alone.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.page-cache", name = "enabled", havingValue = "true")
+public class UserPageCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_NAME = "userPages";
+    private static final String PATH = "/api/v1/users";
+    private static final Set<String> PAGE_PARAMETERS = Set.of("after", "limit");
+    private static final String GZIP = "gzip";
+
+    private final Cache<String, CachedPage> pages;
+    private final int compressionLevel;
+    private final long compressionMinSize;
+
+    public UserPageCacheFilter(UserPageCacheProperties userPageCacheProperties, MeterRegistry meterRegistry) {
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(userPageCacheProperties.getTtl())
+                .maximumWeight(userPageCacheProperties.getMaxSize().toBytes())
+                .weigher((String key, CachedPage page) -> page.weight())
+                .recordStats()
+                .build();
+        this.compressionLevel = userPageCacheProperties.getCompressionLevel();
+        this.compressionMinSize = userPageCacheProperties.getCompressionMinSize().toBytes();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, CACHE_NAME);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !PATH.equals(request.getRequestURI())
+                || !PAGE_PARAMETERS.containsAll(request.getParameterMap().keySet());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // also on 304s, which stand in for the page
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        String key = request.getHeader(HttpHeaders.ACCEPT) + ' ' + request.getQueryString();
+        CachedPage page = pages.getIfPresent(key);
+        if (page == null) {
+            ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, responseWrapper);
+            // errors and 304s are not pages
+            if (responseWrapper.getStatus() != HttpServletResponse.SC_OK || responseWrapper.getContentType() == null) {
+                responseWrapper.copyBodyToResponse();
+                return;
+            }
+            byte[] body = responseWrapper.getContentAsByteArray();
+            byte[] gzipped = body.length >= compressionMinSize ? gzip(body, compressionLevel) : null;
+            String eTag = variantETag(response.getHeader(HttpHeaders.ETAG), responseWrapper.getContentType());
+            if (eTag != null) {
+                response.setHeader(HttpHeaders.ETAG, eTag);
+            }
+            page = new CachedPage(responseWrapper.getContentType(), eTag, body, gzipped);
+            pages.put(key, page);
+        } else {
+            response.setContentType(page.contentType());
+            if (page.eTag() != null) {
+                response.setHeader(HttpHeaders.ETAG, page.eTag());
+                if (new ServletWebRequest(request, response).checkNotModified(page.eTag())) {
+                    return;
+                }
+            }
+        }
+        write(page, request, response);
+    }
+
+    private static void write(CachedPage page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        byte[] body = page.body();
+        if (page.gzipped() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            body = page.gzipped();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // the controller's page ETag does not depend on the format; JSON keeps it, the others get a suffix
+    static String variantETag(String eTag, String contentType) {
+        if (eTag == null || !eTag.endsWith("\"")) {
+            return eTag;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + '-' + mediaType.getSubtype() + '"';
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean anyAccepted = false;
+        for (String coding : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+            // "gzip;q=0" refuses it
+            boolean accepted = parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if (GZIP.equalsIgnoreCase(parts[0])) {
+                return accepted;
+            }
+            if ("*".equals(parts[0])) {
+                anyAccepted = accepted;
+            }
+        }
+        return anyAccepted;
+    }
+
+    static byte[] gzip(byte[] body, int level) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4 + 32);
+        try (GZIPOutputStream gzipOutputStream = new LeveledGZIPOutputStream(outputStream, level)) {
+            gzipOutputStream.write(body);
+        } catch (IOException e) {
+            // in-memory streams do not fail
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private record CachedPage(String contentType, String eTag, byte[] body, byte[] gzipped) {
+
+        int weight() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+
+    // GZIPOutputStream only exposes the level through its protected Deflater
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        LeveledGZIPOutputStream(OutputStream outputStream, int level) throws IOException {
+            super(outputStream);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sbpostgresdockercompose.repository;
+
+/**
+ * Wire formats of Postgres {@code COPY} supported by {@link UserCopyRepository}.
+ */
+public enum CopyFormat {
+
+    // a header row with the column names
+    CSV("(format csv, header)"),
+    // Postgres' binary COPY format: no text parsing on either side
+    BINARY("(format binary)");
+
+    private final String copyOptions;
+
+    CopyFormat(String copyOptions) {
+        this.copyOptions = copyOptions;
+    }
+
+    String copyOptions() {
+        return copyOptions;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Idempotency keys and the responses of the requests that first used them.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims the key for a request with the given fingerprint. Returns {@code null} if the caller
+     * now holds the key (new, expired, or abandoned by a request that ran past the lock timeout),
+     * otherwise the record of the request that holds or completed it.
+     *
+     * @param claimToken unique per request; {@link #complete} and {@link #release} only act on the
+     *                   claim made with it, so a request whose key was taken over cannot touch the
+     *                   new claim
+     */
+    IdempotencyRecord claim(String key, UUID claimToken, byte[] fingerprint);
+
+    // stores the response of the claiming request, to be replayed until the key expires
+    void complete(String key, UUID claimToken, StoredResponse response);
+
+    // gives up a claim without a response, so that a retry runs the request again
+    void release(String key, UUID claimToken);
+
+    /**
+     * @param response null while the claiming request is still running
+     */
+    record IdempotencyRecord(UUID claimToken, byte[] fingerprint, StoredResponse response, Instant claimedAt) {
+    }
+
+    record StoredResponse(int status, String contentType, String location, String eTag, byte[] body) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.config.IdempotencyProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps keys in a Caffeine map: lock-striped concurrent reads and writes, entries dropped after
+ * the TTL, and a byte bound over the stored bodies. Only deduplicates retries that reach this
+ * instance.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    // key, fingerprint and bookkeeping, roughly
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final ConcurrentMap<String, IdempotencyRecord> records;
+    private final Duration lockTimeout;
+    private final Clock clock;
+
+    public InMemoryIdempotencyStore(IdempotencyProperties idempotencyProperties) {
+        this(idempotencyProperties, Clock.systemUTC());
+    }
+
+    InMemoryIdempotencyStore(IdempotencyProperties idempotencyProperties, Clock clock) {
+        this.records = Caffeine.newBuilder()
+                .expireAfterWrite(idempotencyProperties.getTtl())
+                .maximumWeight(idempotencyProperties.getMaxSize().toBytes())
+                .weigher((String key, IdempotencyRecord record) -> ENTRY_OVERHEAD_BYTES
+                        + (record.response() == null ? 0 : record.response().body().length))
+                .<String, IdempotencyRecord>build()
+                .asMap();
+        this.lockTimeout = idempotencyProperties.getLockTimeout();
+        this.clock = clock;
+    }
+
+    @Override
+    public IdempotencyRecord claim(String key, UUID claimToken, byte[] fingerprint) {
+        Instant now = clock.instant();
+        IdempotencyRecord claimed = new IdempotencyRecord(claimToken, fingerprint, null, now);
+        while (true) {
+            IdempotencyRecord existing = records.putIfAbsent(key, claimed);
+            if (existing == null) {
+                return null;
+            }
+            boolean abandoned = existing.response() == null && existing.claimedAt().plus(lockTimeout).isBefore(now);
+            if (!abandoned) {
+                return existing;
+            }
+            // fails if another retry took the key over first
+            if (records.replace(key, existing, claimed)) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, UUID claimToken, StoredResponse response) {
+        records.computeIfPresent(key, (ignored, record) -> isClaimedWith(record, claimToken)
+                ? new IdempotencyRecord(claimToken, record.fingerprint(), response, record.claimedAt())
+                : record);
+    }
+
+    @Override
+    public void release(String key, UUID claimToken) {
+        records.computeIfPresent(key, (ignored, record) -> isClaimedWith(record, claimToken) ? null : record);
+    }
+
+    // false once the claim was completed, or taken over by another request
+    private static boolean isClaimedWith(IdempotencyRecord record, UUID claimToken) {
+        return record.response() == null && record.claimToken().equals(claimToken);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.config.IdempotencyProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps keys in the {@code idempotency_keys} table (V5), so a retry that reaches another instance
+ * is still recognized. The claim is a single upsert, and each statement commits on its own: the
+ * claim is visible to other instances before the request runs. Completing and releasing only
+ * match the row while it still carries the request's claim token.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    // takes over keys that expired, or whose request ran past the lock timeout without completing
+    private static final String CLAIM = """
+            insert into idempotency_keys (key, claim_token, fingerprint) values (?, ?, ?)
+            on conflict (key) do update set claim_token = excluded.claim_token, fingerprint = excluded.fingerprint,
+                status = null, content_type = null, location = null, etag = null, body = null, created_at = now()
+            where idempotency_keys.created_at < now() - make_interval(secs => ?)
+               or (idempotency_keys.status is null and idempotency_keys.created_at < now() - make_interval(secs => ?))""";
+    private static final String FIND = """
+            select claim_token, fingerprint, status, content_type, location, etag, body, created_at
+            from idempotency_keys where key = ?""";
+    private static final String COMPLETE = """
+            update idempotency_keys set status = ?, content_type = ?, location = ?, etag = ?, body = ?
+            where key = ? and claim_token = ? and status is null""";
+    private static final String RELEASE = """
+            delete from idempotency_keys where key = ? and claim_token = ? and status is null""";
+    private static final String DELETE_EXPIRED = "delete from idempotency_keys where created_at < now() - make_interval(secs => ?)";
+
+    private static final RowMapper<IdempotencyRecord> IDEMPOTENCY_RECORD_ROW_MAPPER = (resultSet, rowNum) -> {
+        int status = resultSet.getInt(3);
+        StoredResponse response = resultSet.wasNull() ? null : new StoredResponse(status,
+                resultSet.getString(4), resultSet.getString(5), resultSet.getString(6), resultSet.getBytes(7));
+        return new IdempotencyRecord(resultSet.getObject(1, UUID.class), resultSet.getBytes(2), response,
+                resultSet.getObject(8, OffsetDateTime.class).toInstant());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double ttlSeconds;
+    private final double lockTimeoutSeconds;
+
+    public JdbcIdempotencyStore(DataSource dataSource, IdempotencyProperties idempotencyProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ttlSeconds = seconds(idempotencyProperties.getTtl());
+        this.lockTimeoutSeconds = seconds(idempotencyProperties.getLockTimeout());
+    }
+
+    @Override
+    public IdempotencyRecord claim(String key, UUID claimToken, byte[] fingerprint) {
+        while (true) {
+            if (jdbcTemplate.update(CLAIM, key, claimToken, fingerprint, ttlSeconds, lockTimeoutSeconds) == 1) {
+                return null;
+            }
+            List<IdempotencyRecord> existing = jdbcTemplate.query(FIND, IDEMPOTENCY_RECORD_ROW_MAPPER, key);
+            // otherwise released in between: try again
+            if (!existing.isEmpty()) {
+                return existing.get(0);
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, UUID claimToken, StoredResponse response) {
+        jdbcTemplate.update(COMPLETE, response.status(), response.contentType(), response.location(),
+                response.eTag(), response.body(), key, claimToken);
+    }
+
+    @Override
+    public void release(String key, UUID claimToken) {
+        jdbcTemplate.update(RELEASE, key, claimToken);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1H}")
+    public void deleteExpiredKeys() {
+        jdbcTemplate.update(DELETE_EXPIRED, ttlSeconds);
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the {@code users} table over R2DBC, mapping rows straight to response DTOs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    private static final String SELECT_USERS = "select id, name, email, version from users";
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<UserDtoResponse> findById(Long id) {
+        return databaseClient.sql(SELECT_USERS + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toDto)
+                .one();
+    }
+
+    public Flux<UserDtoResponse> findPage(Long after, int limit) {
+        return databaseClient.sql(SELECT_USERS + " where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toDto)
+                .all();
+    }
+
+    // rows are pulled as the subscriber requests them
+    public Flux<UserDtoResponse> findAll() {
+        return databaseClient.sql(SELECT_USERS + " order by id")
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ReactiveUserRepository::toDto)
+                .all();
+    }
+
+    // takes one value of user_seq per row; JPA's pooled blocks start at other values, so ids never collide
+    public Mono<UserDtoResponse> insert(String name, String email) {
+        GenericExecuteSpec spec = databaseClient.sql(
+                "insert into users (id, name, email) values (nextval('user_seq'), :name, :email) returning id, name, email, version");
+        return bindNullable(bindNullable(spec, "name", name), "email", email)
+                .map(ReactiveUserRepository::toDto)
+                .one();
+    }
+
+    public Mono<UserDtoResponse> update(Long id, String name, String email) {
+        GenericExecuteSpec spec = databaseClient.sql(
+                "update users set name = :name, email = :email, version = version + 1 where id = :id returning id, name, email, version")
+                .bind("id", id);
+        return bindNullable(bindNullable(spec, "name", name), "email", email)
+                .map(ReactiveUserRepository::toDto)
+                .one();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from users where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static UserDtoResponse toDto(Row row, RowMetadata metadata) {
+        return new UserDtoResponse(row.get("id", Long.class), row.get("name", String.class), row.get("email", String.class),
+                row.get("version", Long.class));
+    }
+}
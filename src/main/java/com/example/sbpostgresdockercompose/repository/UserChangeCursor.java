@@ -0,0 +1,30 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
+
+/**
+ * Position in the change feed: the writing transaction's id, then the change's own id. Handed to
+ * clients as "{txId}-{id}".
+ */
+public record UserChangeCursor(long txId, long id) {
+
+    public static final UserChangeCursor START = new UserChangeCursor(0, 0);
+
+    public static UserChangeCursor parse(String cursor) {
+        int separator = cursor.indexOf('-');
+        try {
+            if (separator > 0) {
+                return new UserChangeCursor(Long.parseLong(cursor.substring(0, separator)),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            }
+        } catch (NumberFormatException e) {
+            // falls through
+        }
+        throw new BadRequestException("Invalid change cursor: " + cursor);
+    }
+
+    @Override
+    public String toString() {
+        return txId + "-" + id;
+    }
+}
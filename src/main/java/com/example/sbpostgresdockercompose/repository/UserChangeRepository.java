@@ -0,0 +1,108 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Reads the {@code user_changes} table filled by the V4 triggers.
+ * <p>
+ * Change ids come from a sequence, so they are not in commit order: reading "id > cursor" would
+ * skip a change whose transaction commits after a later id was read. Instead changes are read in
+ * (transaction id, id) order and only from transactions older than the oldest one still running
+ * ({@code pg_snapshot_xmin}); everything written afterwards sorts after any cursor returned so far.
+ * A long-running write transaction therefore holds the feed back until it ends.
+ * <p>
+ * The triggers write changes whether or not the feed is enabled, so the retention job runs either
+ * way. It records the newest change it deleted in {@code user_changes_horizon} (V6), in the same
+ * statement, so a cursor before it is known to have missed changes.
+ * <p>
+ * Runs outside transactions, on the primary.
+ */
+@Slf4j
+@Repository
+public class UserChangeRepository {
+
+    private static final String FIND_AFTER = """
+            select tx_id::text::bigint, id, user_id, operation, version, changed_at
+            from user_changes
+            where (tx_id, id) > (?::text::xid8, ?)
+              and tx_id < pg_snapshot_xmin(pg_current_snapshot())
+            order by tx_id, id
+            limit ?""";
+    private static final String FIND_HEAD = """
+            select tx_id::text::bigint, id
+            from user_changes
+            where tx_id < pg_snapshot_xmin(pg_current_snapshot())
+            order by tx_id desc, id desc
+            limit 1""";
+    private static final String DELETE_BEFORE = """
+            with deleted as (
+                delete from user_changes where changed_at < ? returning tx_id, id
+            ), newest as (
+                select tx_id, id from deleted order by tx_id desc, id desc limit 1
+            ), horizon as (
+                update user_changes_horizon h set tx_id = newest.tx_id, id = newest.id
+                from newest
+                where (newest.tx_id, newest.id) > (h.tx_id, h.id)
+            )
+            select count(*) from deleted""";
+    private static final String IS_EXPIRED = """
+            select (?::text::xid8, ?) < (tx_id, id) from user_changes_horizon""";
+
+    private static final RowMapper<UserChange> USER_CHANGE_ROW_MAPPER = (resultSet, rowNum) -> new UserChange(
+            new UserChangeCursor(resultSet.getLong(1), resultSet.getLong(2)).toString(),
+            resultSet.getLong(3),
+            UserChange.Operation.valueOf(resultSet.getString(4)),
+            resultSet.getLong(5),
+            resultSet.getObject(6, OffsetDateTime.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+
+    public UserChangeRepository(DataSource dataSource, UserChangeProperties userChangeProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.retention = userChangeProperties.getRetention();
+    }
+
+    public List<UserChange> findChangesAfter(UserChangeCursor cursor, int limit) {
+        return jdbcTemplate.query(FIND_AFTER, USER_CHANGE_ROW_MAPPER, cursor.txId(), cursor.id(), limit);
+    }
+
+    // cursor of the last change readable now, START if there is none
+    public UserChangeCursor findHead() {
+        return jdbcTemplate.query(FIND_HEAD,
+                (resultSet, rowNum) -> new UserChangeCursor(resultSet.getLong(1), resultSet.getLong(2)))
+                .stream()
+                .findFirst()
+                .orElse(UserChangeCursor.START);
+    }
+
+    // true if changes after the cursor were deleted by the retention job
+    public boolean isExpired(UserChangeCursor cursor) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_EXPIRED, Boolean.class, cursor.txId(), cursor.id()));
+    }
+
+    // returns the number of changes removed
+    public int deleteChangesBefore(Instant instant) {
+        Integer deleted = jdbcTemplate.queryForObject(DELETE_BEFORE, Integer.class, instant.atOffset(ZoneOffset.UTC));
+        return deleted != null ? deleted : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-interval:PT1H}")
+    public void deleteExpiredChanges() {
+        int deleted = deleteChangesBefore(Instant.now().minus(retention));
+        log.debug("Deleted {} expired user changes", deleted);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Bulk transfer of the {@code users} table with PgJDBC's {@link CopyManager}: rows stream between
+ * the given stream and Postgres without entities, DTOs or buffering the whole data set.
+ * Both methods use the connection of the surrounding transaction.
+ */
+@Repository
+public class UserCopyRepository {
+
+    private static final String EXPORT = "copy (select id, name, email, version from users order by id) to stdout ";
+
+    // text columns, so over-long or empty values reach the validation below instead of failing the COPY
+    private static final String CREATE_STAGING_TABLE =
+            "create temporary table users_import (name text, email text) on commit drop";
+    private static final String IMPORT_INTO_STAGING_TABLE = "copy users_import (name, email) from stdin ";
+    // SQLSTATE class 22: the body itself is broken (wrong column count, unterminated quote, bad encoding...)
+    private static final String DATA_EXCEPTION_CLASS = "22";
+    private static final String MALFORMED_IMPORT = "Malformed import data: ";
+    private static final String DELETE_INVALID_ROWS = """
+            delete from users_import
+            where name is null or btrim(name) = '' or length(name) > 255
+               or email is null or length(email) > 255 or email !~ '^[^@[:space:]]+@[^@[:space:]]+$'""";
+    // first row per email wins; emails already in users are skipped by the unique index
+    private static final String INSERT_NEW_USERS = """
+            insert into users (id, name, email)
+            select nextval('user_seq'), name, email
+            from (select distinct on (email) name, email from users_import order by email) deduplicated
+            on conflict (email) do nothing""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserCopyRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // returns the number of rows written
+    public long exportUsers(CopyFormat format, OutputStream outputStream) {
+        return copy(copyManager -> copyManager.copyOut(EXPORT + format.copyOptions(), outputStream));
+    }
+
+    // must run in a read-write transaction: the staging table lives until it commits
+    public UserImportResponse importUsers(CopyFormat format, InputStream inputStream) {
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        long received = copy(copyManager -> {
+            try {
+                return copyManager.copyIn(IMPORT_INTO_STAGING_TABLE + format.copyOptions(), inputStream);
+            } catch (SQLException e) {
+                // a client error, not a conflict: JdbcTemplate would translate it to DataIntegrityViolationException
+                if (e.getSQLState() != null && e.getSQLState().startsWith(DATA_EXCEPTION_CLASS)) {
+                    throw new BadRequestException(MALFORMED_IMPORT + describe(e));
+                }
+                throw e;
+            }
+        });
+        long invalid = jdbcTemplate.update(DELETE_INVALID_ROWS);
+        long imported = jdbcTemplate.update(INSERT_NEW_USERS);
+        return new UserImportResponse(received, imported, received - invalid - imported, invalid);
+    }
+
+    private long copy(CopyOperation operation) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return operation.copy(copyManager(connection));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    // the server's message and where it stopped, e.g. "extra data after last expected column (COPY ..., line 3: ...)"
+    private static String describe(SQLException e) {
+        ServerErrorMessage serverError = e instanceof PSQLException psqlException ? psqlException.getServerErrorMessage() : null;
+        if (serverError == null) {
+            return e.getMessage();
+        }
+        return serverError.getWhere() == null
+                ? serverError.getMessage()
+                : serverError.getMessage() + " (" + serverError.getWhere() + ")";
+    }
+
+    private static CopyManager copyManager(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    @FunctionalInterface
+    private interface CopyOperation {
+        long copy(CopyManager copyManager) throws SQLException, IOException;
+    }
+}
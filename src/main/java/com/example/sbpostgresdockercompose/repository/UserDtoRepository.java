@@ -0,0 +1,19 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads that JPQL cannot express, mixed into {@link UserRepository}.
+ */
+public interface UserDtoRepository {
+
+    // in no particular order; ids without a user are left out
+    List<UserDtoResponse> findDtosByIds(Collection<Long> ids);
+
+    // digest of the ids and versions of the first limit users after the given id; changes whenever
+    // one of those rows is inserted, updated or deleted
+    long digestPageAfter(long after, int limit);
+}
@@ -1,7 +1,74 @@
 package com.example.sbpostgresdockercompose.repository;
 
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
 import com.example.sbpostgresdockercompose.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepository extends JpaRepository <User, Long> {
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface UserRepository extends JpaRepository <User, Long>, UserDtoRepository {
+
+    // Read path: the columns go straight into the response DTO, so no entity is hydrated, put in the
+    // persistence context or copied by the mapper. The LIKE queries escape % and _ in the prefix.
+    String SELECT_DTO = "select new com.example.sbpostgresdockercompose.dto.UserDtoResponse(u.id, u.name, u.email, u.version) "
+            + "from User u ";
+
+    @Query(SELECT_DTO + "where u.id = :id")
+    Optional<UserDtoResponse> findDtoById(@Param("id") Long id);
+
+    // keyset pagination: "where id > :after order by id limit :n" stays an index range scan at any depth
+    @Query(SELECT_DTO + "where u.id > :after order by u.id")
+    List<UserDtoResponse> findDtoPageAfter(@Param("after") Long after, Pageable pageable);
+
+    // must be consumed inside a transaction: PgJDBC only uses a server-side cursor
+    // (honouring the fetch size) when autocommit is off
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "order by u.id")
+    Stream<UserDtoResponse> streamAllAsDto();
+
+    // single round-trip update; empty when no row has this id
+    @Transactional
+    @Query(value = "update users set name = :name, email = :email, version = version + 1 where id = :id returning *",
+            nativeQuery = true)
+    Optional<User> updateNameAndEmailReturning(@Param("id") Long id, @Param("name") String name, @Param("email") String email);
+
+    // as above, but also empty when the row's version is no longer the expected one (If-Match)
+    @Transactional
+    @Query(value = "update users set name = :name, email = :email, version = version + 1 "
+            + "where id = :id and version = :version returning *", nativeQuery = true)
+    Optional<User> updateNameAndEmailIfVersionReturning(@Param("id") Long id, @Param("name") String name,
+                                                        @Param("email") String email, @Param("version") Long version);
+
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id and u.version = :version")
+    int deleteUserByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    // backed by the unique index on email
+    Optional<User> findByEmail(String email);
+
+    @Query(SELECT_DTO + "where u.email = ?1")
+    Optional<UserDtoResponse> findDtoByEmail(String email);
+
+    @Query(SELECT_DTO + "where u.email = ?1 and u.name like ?#{escape([1])}% escape ?#{escapeCharacter()}")
+    Optional<UserDtoResponse> findDtoByEmailAndNamePrefix(String email, String namePrefix);
+
+    // backed by the text_pattern_ops / trigram indexes on name
+    @Query(SELECT_DTO + "where u.name like ?#{escape([0])}% escape ?#{escapeCharacter()} order by u.id")
+    List<UserDtoResponse> findDtoByNamePrefix(String namePrefix, Pageable pageable);
 }
@@ -0,0 +1,16 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+    Mono<UserDtoResponse> getUserById(Long id);
+    Mono<UserPageResponse> getAllUsers(Long after, int limit);
+    Flux<UserDtoResponse> streamAllUsers();
+    Mono<UserDtoResponse> createUser(UserDtoRequest userDtoRequest);
+    Mono<UserDtoResponse> updateUser(Long id, UserDtoRequest userDtoRequest);
+    Mono<Void> deleteUser(Long id);
+}
@@ -0,0 +1,84 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.CacheConfig;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.exception.EntityNotFoundException;
+import com.example.sbpostgresdockercompose.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.example.sbpostgresdockercompose.service.UserServiceImpl.MAX_PAGE_SIZE;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private final ReactiveUserRepository reactiveUserRepository;
+    private final CacheManager cacheManager;
+
+    @Override
+    public Mono<UserDtoResponse> getUserById(Long id) {
+        return reactiveUserRepository.findById(id)
+                .switchIfEmpty(notFound(id));
+    }
+
+    @Override
+    public Mono<UserPageResponse> getAllUsers(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return reactiveUserRepository.findPage(after == null ? 0L : after, pageSize + 1)
+                .collectList()
+                .map(users -> toPage(users, pageSize));
+    }
+
+    @Override
+    public Flux<UserDtoResponse> streamAllUsers() {
+        return reactiveUserRepository.findAll();
+    }
+
+    @Override
+    public Mono<UserDtoResponse> createUser(UserDtoRequest userDtoRequest) {
+        return reactiveUserRepository.insert(userDtoRequest.getName(), userDtoRequest.getEmail());
+    }
+
+    // writes evict the entry that the blocking API caches for GET /api/v1/users/{id}
+    @Override
+    public Mono<UserDtoResponse> updateUser(Long id, UserDtoRequest userDtoRequest) {
+        return reactiveUserRepository.update(id, userDtoRequest.getName(), userDtoRequest.getEmail())
+                .switchIfEmpty(notFound(id))
+                .doOnSuccess(user -> evict(id));
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long id) {
+        return reactiveUserRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? ReactiveUserServiceImpl.<Void>notFound(id) : Mono.<Void>empty())
+                .doOnSuccess(ignored -> evict(id));
+    }
+
+    private static UserPageResponse toPage(List<UserDtoResponse> users, int pageSize) {
+        if (users.size() <= pageSize) {
+            return new UserPageResponse(users, null);
+        }
+        List<UserDtoResponse> content = users.subList(0, pageSize);
+        return new UserPageResponse(content, content.get(pageSize - 1).getId());
+    }
+
+    private void evict(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    private static <T> Mono<T> notFound(Long id) {
+        return Mono.error(() -> EntityNotFoundException.userNotFound(id));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserChangePage;
+
+public interface UserChangeService {
+    UserChangePage getChanges(String since, int limit);
+    void stream(String since, UserChangeSink sink);
+}
@@ -0,0 +1,254 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.CacheConfig;
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.dto.UserChangePage;
+import com.example.sbpostgresdockercompose.exception.ChangeCursorExpiredException;
+import com.example.sbpostgresdockercompose.repository.UserChangeCursor;
+import com.example.sbpostgresdockercompose.repository.UserChangeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.example.sbpostgresdockercompose.service.UserServiceImpl.MAX_PAGE_SIZE;
+
+/**
+ * User change feed over the {@code user_changes} table.
+ * <p>
+ * A listener thread holds one connection of its own (outside the pool, so it is never reported as
+ * a leak) on which it LISTENs to the notifications sent by the V4 triggers; each notification wakes
+ * the streams. Every stream runs on a virtual thread with its own cursor and simply reads the
+ * changes after it, so replaying from an old cursor and following new changes are the same loop
+ * and nothing is lost between the two. A wake-up costs one indexed query per open stream. Streams
+ * also check on every heartbeat, so a notification missed while reconnecting only delays changes.
+ * A cursor from before the changes the retention job deleted fails with
+ * {@link ChangeCursorExpiredException} rather than resuming at the oldest change left.
+ * <p>
+ * With {@code app.changes.evict-cache}, an internal stream evicts the changed users from the local
+ * cache, so instances do not serve each other's stale entries.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.changes", name = "enabled", havingValue = "true")
+public class UserChangeServiceImpl implements UserChangeService, SmartLifecycle {
+
+    static final String CHANNEL = "user_changes";
+    // how long the listener blocks for notifications, i.e. how quickly it notices stop()
+    private static final int LISTEN_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final UserChangeRepository userChangeRepository;
+    private final DataSourceProperties dataSourceProperties;
+    private final Cache usersCache;
+    private final Duration heartbeat;
+
+    // ReentrantLock rather than synchronized: virtual threads do not pin their carrier on it
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private long generation;
+
+    private final AtomicInteger streams = new AtomicInteger();
+    private final Counter notifications;
+
+    private volatile boolean running;
+    private volatile Thread listener;
+
+    public UserChangeServiceImpl(UserChangeRepository userChangeRepository, DataSourceProperties dataSourceProperties,
+                                 CacheManager cacheManager, UserChangeProperties userChangeProperties,
+                                 MeterRegistry meterRegistry) {
+        this.userChangeRepository = userChangeRepository;
+        this.dataSourceProperties = dataSourceProperties;
+        this.usersCache = userChangeProperties.isEvictCache() ? cacheManager.getCache(CacheConfig.USERS_CACHE) : null;
+        this.heartbeat = userChangeProperties.getHeartbeat();
+        Gauge.builder("users.changes.streams", streams, AtomicInteger::get)
+                .description("Open change streams")
+                .register(meterRegistry);
+        this.notifications = Counter.builder("users.changes.notifications")
+                .description("Change notifications received from Postgres")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UserChangePage getChanges(String since, int limit) {
+        if (since == null) {
+            return new UserChangePage(List.of(), userChangeRepository.findHead().toString());
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        UserChangeCursor cursor = UserChangeCursor.parse(since);
+        List<UserChange> changes = userChangeRepository.findChangesAfter(cursor, pageSize);
+        // checked after the read: a deletion the read did not see has advanced the horizon by now
+        if (userChangeRepository.isExpired(cursor)) {
+            throw new ChangeCursorExpiredException(since);
+        }
+        String nextCursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getCursor();
+        return new UserChangePage(changes, nextCursor);
+    }
+
+    @Override
+    public void stream(String since, UserChangeSink sink) {
+        // resolved here, so a bad cursor fails the request instead of the stream
+        UserChangeCursor cursor = since != null ? UserChangeCursor.parse(since) : userChangeRepository.findHead();
+        if (!running) {
+            sink.complete();
+            return;
+        }
+        if (since != null && userChangeRepository.isExpired(cursor)) {
+            throw new ChangeCursorExpiredException(since);
+        }
+        Thread.ofVirtual().name("user-changes-stream").start(() -> pump(cursor, sink));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "user-changes-listener");
+        listener.start();
+        if (usersCache != null) {
+            stream(null, new CacheEvictingSink());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        signal();
+        Thread thread = listener;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void pump(UserChangeCursor start, UserChangeSink sink) {
+        streams.incrementAndGet();
+        UserChangeCursor cursor = start;
+        try {
+            while (running) {
+                long seen = generation();
+                List<UserChange> changes = List.of();
+                try {
+                    changes = userChangeRepository.findChangesAfter(cursor, MAX_PAGE_SIZE);
+                } catch (DataAccessException e) {
+                    log.debug("Could not read user changes, retrying on the next wake-up", e);
+                }
+                if (!changes.isEmpty()) {
+                    sink.send(changes);
+                    cursor = UserChangeCursor.parse(changes.get(changes.size() - 1).getCursor());
+                } else if (!awaitChange(seen)) {
+                    sink.send(List.of());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Change stream ended", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            streams.decrementAndGet();
+            sink.complete();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("listen " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // catch up on whatever was committed while not listening
+                signal();
+                while (running) {
+                    PGNotification[] received = pgConnection.getNotifications(LISTEN_TIMEOUT_MILLIS);
+                    if (received != null && received.length > 0) {
+                        notifications.increment(received.length);
+                        signal();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost the user change notification connection, reconnecting", e);
+                    LockSupport.parkNanos(this, RECONNECT_DELAY_NANOS);
+                }
+            }
+        }
+    }
+
+    private long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            generation++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // false if the heartbeat interval passed without a notification
+    private boolean awaitChange(long seen) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = heartbeat.toNanos();
+            while (generation == seen && running && nanos > 0) {
+                nanos = changed.awaitNanos(nanos);
+            }
+            return generation != seen;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class CacheEvictingSink implements UserChangeSink {
+
+        @Override
+        public void send(List<UserChange> changes) {
+            changes.forEach(change -> usersCache.evict(change.getUserId()));
+        }
+
+        @Override
+        public void complete() {
+            // nothing to release
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserChange;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receiver of a change stream, called from the stream's own thread.
+ */
+public interface UserChangeSink {
+
+    // changes in feed order; an empty list is a heartbeat. Throwing ends the stream
+    void send(List<UserChange> changes) throws IOException;
+
+    // called once when the stream ends, for whatever reason
+    void complete();
+}
@@ -0,0 +1,12 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.repository.CopyFormat;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface UserCopyService {
+    long exportUsers(CopyFormat format, OutputStream outputStream);
+    UserImportResponse importUsers(CopyFormat format, InputStream inputStream);
+}
@@ -0,0 +1,108 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.repository.CopyFormat;
+import com.example.sbpostgresdockercompose.repository.UserCopyRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Bulk import and export over {@code COPY}. Progress of a running transfer shows up in the
+ * {@code users.copy.bytes} counters, which grow as the body streams through; row counts are
+ * added to {@code users.copy.rows} when a transfer completes.
+ */
+@Slf4j
+@Service
+@Timed("users.service")
+public class UserCopyServiceImpl implements UserCopyService {
+
+    private final UserCopyRepository userCopyRepository;
+    private final Counter exportedBytes;
+    private final Counter exportedRows;
+    private final Counter importedBytes;
+    private final Counter importedRows;
+
+    public UserCopyServiceImpl(UserCopyRepository userCopyRepository, MeterRegistry meterRegistry) {
+        this.userCopyRepository = userCopyRepository;
+        this.exportedBytes = meterRegistry.counter("users.copy.bytes", "operation", "export");
+        this.exportedRows = meterRegistry.counter("users.copy.rows", "operation", "export");
+        this.importedBytes = meterRegistry.counter("users.copy.bytes", "operation", "import");
+        this.importedRows = meterRegistry.counter("users.copy.rows", "operation", "import");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(CopyFormat format, OutputStream outputStream) {
+        long rows = userCopyRepository.exportUsers(format, new CountingOutputStream(outputStream, exportedBytes));
+        exportedRows.increment(rows);
+        log.info("Exported {} users as {}", rows, format);
+        return rows;
+    }
+
+    @Override
+    @Transactional
+    public UserImportResponse importUsers(CopyFormat format, InputStream inputStream) {
+        UserImportResponse response = userCopyRepository.importUsers(format, new CountingInputStream(inputStream, importedBytes));
+        importedRows.increment(response.getImported());
+        log.info("Imported {} users as {}: {}", response.getImported(), format, response);
+        return response;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final Counter bytes;
+
+        private CountingOutputStream(OutputStream out, Counter bytes) {
+            super(out);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes.increment(len);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Counter bytes;
+
+        private CountingInputStream(InputStream in, Counter bytes) {
+            super(in);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytes.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                bytes.increment(read);
+            }
+            return read;
+        }
+    }
+}
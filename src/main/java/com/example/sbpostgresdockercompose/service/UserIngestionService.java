@@ -0,0 +1,12 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserIngestionService {
+    UserIngestionStatus submit(UserDtoRequest userDtoRequest);
+    Optional<UserIngestionStatus> getStatus(UUID trackingId);
+}
@@ -0,0 +1,236 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserIngestionProperties;
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+import com.example.sbpostgresdockercompose.exception.IngestionQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.example.sbpostgresdockercompose.service.UserServiceImpl.MAX_BATCH_SIZE;
+
+/**
+ * Write-behind user creation. Submissions go on a bounded lock-free queue and a single writer
+ * thread drains whatever has accumulated into one {@link UserService#createUsers} transaction:
+ * the busier the queue, the more inserts share a commit (group commit). When a group fails (e.g.
+ * one duplicate email) its users are retried one by one so only the bad ones are marked FAILED.
+ * <p>
+ * The writer starts and stops with the application context, after the web server has stopped
+ * taking requests, and writes everything still queued before it exits. A submission racing the
+ * stop is either queued before the writer's last drain or refused; anything the writer could not
+ * write is marked FAILED rather than left PENDING.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.ingestion", name = "enabled", havingValue = "true")
+public class UserIngestionServiceImpl implements UserIngestionService, SmartLifecycle {
+
+    // below the web server's graceful shutdown phases, so requests stop arriving before the final flush
+    private static final int PHASE = Integer.MAX_VALUE - 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_TRACKED_STATUSES = 1_000_000;
+    private static final String QUEUE_FULL = "Ingestion queue is full, retry later";
+    private static final String SHUTTING_DOWN = "Ingestion is shutting down, retry later";
+    private static final String CONFLICT = "The user conflicts with existing data";
+    private static final String UNEXPECTED_ERROR = "Unexpected error";
+
+    private final UserService userService;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+
+    // ConcurrentLinkedQueue is unbounded and its size() is O(n), so the bound is kept alongside
+    private final Queue<PendingUser> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Cache<UUID, UserIngestionStatus> statuses;
+    // submissions share the read lock; stop() takes the write lock to flip running, so no offer
+    // can land after the writer has seen running == false and emptied the queue
+    private final ReentrantReadWriteLock admission = new ReentrantReadWriteLock();
+
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public UserIngestionServiceImpl(UserService userService, UserIngestionProperties userIngestionProperties,
+                                    MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.queueCapacity = userIngestionProperties.getQueueCapacity();
+        this.maxBatchSize = Math.max(1, Math.min(userIngestionProperties.getMaxBatchSize(), MAX_BATCH_SIZE));
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(userIngestionProperties.getStatusTtl())
+                .maximumSize(MAX_TRACKED_STATUSES)
+                .build();
+
+        Gauge.builder("users.ingestion.queue.size", queued, AtomicInteger::get)
+                .description("Users waiting to be written")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("users.ingestion.rejected")
+                .description("Submissions refused because the queue was full")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("users.ingestion.batch.size")
+                .description("Users written per transaction")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UserIngestionStatus submit(UserDtoRequest userDtoRequest) {
+        UserIngestionStatus status;
+        admission.readLock().lock();
+        try {
+            if (!running) {
+                throw new IngestionQueueFullException(SHUTTING_DOWN);
+            }
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw new IngestionQueueFullException(QUEUE_FULL);
+            }
+            status = new UserIngestionStatus(UUID.randomUUID(), UserIngestionStatus.State.PENDING, null, null);
+            statuses.put(status.getTrackingId(), status);
+            queue.offer(new PendingUser(status.getTrackingId(), userDtoRequest));
+        } finally {
+            admission.readLock().unlock();
+        }
+        LockSupport.unpark(writer);
+        return status;
+    }
+
+    @Override
+    public Optional<UserIngestionStatus> getStatus(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "user-ingestion-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        admission.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            admission.writeLock().unlock();
+        }
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // only left if the writer died or the join was interrupted
+        PendingUser pendingUser;
+        while ((pendingUser = queue.poll()) != null) {
+            queued.decrementAndGet();
+            failed(pendingUser, SHUTTING_DOWN);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drain() {
+        List<PendingUser> batch = new ArrayList<>(maxBatchSize);
+        // keeps going after stop() until the queue is empty
+        while (running || !queue.isEmpty()) {
+            PendingUser pendingUser;
+            while (batch.size() < maxBatchSize && (pendingUser = queue.poll()) != null) {
+                batch.add(pendingUser);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            queued.addAndGet(-batch.size());
+            try {
+                write(batch);
+            } catch (Throwable e) {
+                // keep the writer alive: without it everything submitted later would stay PENDING
+                log.error("Could not write a group of {} users", batch.size(), e);
+                batch.forEach(pendingUser -> failed(pendingUser, UNEXPECTED_ERROR));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingUser> batch) {
+        batchSize.record(batch.size());
+        List<UserBatchItemResponse> results;
+        try {
+            results = userService.createUsers(batch.stream().map(PendingUser::request).toList());
+        } catch (RuntimeException e) {
+            log.debug("Group of {} users failed, writing them one by one", batch.size(), e);
+            batch.forEach(this::writeOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            UserBatchItemResponse result = results.get(i);
+            if (result.getStatus() == HttpStatus.CREATED.value()) {
+                created(batch.get(i), result.getId());
+            } else {
+                failed(batch.get(i), result.getMessage());
+            }
+        }
+    }
+
+    private void writeOne(PendingUser pendingUser) {
+        try {
+            created(pendingUser, userService.createUser(pendingUser.request()).getId());
+        } catch (DataIntegrityViolationException e) {
+            failed(pendingUser, CONFLICT);
+        } catch (RuntimeException e) {
+            log.error("Could not create user {}", pendingUser.trackingId(), e);
+            failed(pendingUser, UNEXPECTED_ERROR);
+        }
+    }
+
+    private void created(PendingUser pendingUser, Long userId) {
+        statuses.put(pendingUser.trackingId(),
+                new UserIngestionStatus(pendingUser.trackingId(), UserIngestionStatus.State.CREATED, userId, null));
+    }
+
+    private void failed(PendingUser pendingUser, String message) {
+        statuses.put(pendingUser.trackingId(),
+                new UserIngestionStatus(pendingUser.trackingId(), UserIngestionStatus.State.FAILED, null, message));
+    }
+
+    private record PendingUser(UUID trackingId, UserDtoRequest request) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserLookupProperties;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Merges concurrent lookups by id into one {@code id = any(?)} query (DataLoader-style).
+ * <p>
+ * The first lookup to arrive opens a batch, waits for the coalescing window and then runs the
+ * query, in its own transaction, for every id that joined in the meantime; the others wait for
+ * its result. A batch that reaches the maximum size is run at once by the lookup that filled it.
+ * A lookup for an id that is already queued or being queried just waits for that result, so a
+ * burst of requests for one user costs one row read. Waiting lookups give up after
+ * {@code app.lookup.max-wait} with a {@link QueryTimeoutException}, so a query that never returns
+ * cannot hold request threads forever.
+ * <p>
+ * With coalescing disabled, lookups go straight to the repository. Either way the query runs in
+ * the caller's transaction; {@link UserServiceImpl#getUserById} keeps it on the primary, because
+ * its result is cached.
+ */
+@Component
+public class UserLookupCoalescer {
+
+    private final UserRepository userRepository;
+    private final boolean coalesce;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    // queued or running lookups, so that a second lookup for an id joins the first one
+    private final Map<Long, CompletableFuture<UserDtoResponse>> inFlight = new ConcurrentHashMap<>();
+    // ReentrantLock rather than synchronized: virtual threads do not pin their carrier on it
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch openBatch;
+
+    private final Counter joined;
+    private final DistributionSummary batchSize;
+
+    public UserLookupCoalescer(UserRepository userRepository, UserLookupProperties userLookupProperties,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.coalesce = userLookupProperties.isCoalesce();
+        this.windowNanos = userLookupProperties.getCoalesceWindow().toNanos();
+        this.maxBatchSize = Math.max(1, userLookupProperties.getMaxBatchSize());
+        this.maxWaitNanos = userLookupProperties.getMaxWait().toNanos();
+        this.joined = Counter.builder("users.lookup.joined")
+                .description("Lookups answered by a query already queued or running for the same id")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("users.lookup.batch.size")
+                .description("Ids per coalesced lookup query")
+                .register(meterRegistry);
+    }
+
+    public Optional<UserDtoResponse> findById(Long id) {
+        if (!coalesce) {
+            return userRepository.findDtoById(id);
+        }
+        CompletableFuture<UserDtoResponse> result = new CompletableFuture<>();
+        CompletableFuture<UserDtoResponse> existing = inFlight.putIfAbsent(id, result);
+        if (existing != null) {
+            joined.increment();
+            return Optional.ofNullable(await(id, existing));
+        }
+
+        Batch batch;
+        boolean opened = false;
+        boolean full = false;
+        lock.lock();
+        try {
+            if (openBatch == null) {
+                openBatch = new Batch();
+                opened = true;
+            }
+            batch = openBatch;
+            batch.ids.add(id);
+            if (batch.ids.size() >= maxBatchSize) {
+                openBatch = null;
+                batch.closed = true;
+                full = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full) {
+            if (!opened) {
+                // the opener need not wait out the window for a batch that is already running
+                LockSupport.unpark(batch.opener);
+            }
+            run(batch);
+        } else if (opened) {
+            awaitWindow(batch);
+            if (close(batch)) {
+                run(batch);
+            }
+        }
+        return Optional.ofNullable(await(id, result));
+    }
+
+    // false if the batch filled up and was already run by another lookup
+    private boolean close(Batch batch) {
+        lock.lock();
+        try {
+            if (openBatch != batch) {
+                return false;
+            }
+            openBatch = null;
+            batch.closed = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // parkNanos may return early (spuriously or on a stale unpark), so park again for whatever is left
+    private void awaitWindow(Batch batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        for (long remaining = windowNanos; remaining > 0 && !batch.closed; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void run(Batch batch) {
+        batchSize.record(batch.ids.size());
+        Throwable failure = null;
+        try {
+            Map<Long, UserDtoResponse> users = userRepository.findDtosByIds(batch.ids).stream()
+                    .collect(Collectors.toMap(UserDtoResponse::getId, Function.identity()));
+            for (Long id : batch.ids) {
+                inFlight.remove(id).complete(users.get(id));
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            // only ids of a failed batch are left; they leave inFlight even on an Error, otherwise
+            // later lookups of those ids would join a result that never comes
+            for (Long id : batch.ids) {
+                CompletableFuture<UserDtoResponse> pending = inFlight.remove(id);
+                if (pending != null) {
+                    pending.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private UserDtoResponse await(Long id, CompletableFuture<UserDtoResponse> result) {
+        try {
+            return result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // rethrow the query's own exception, so it maps to the same response as without coalescing
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Timed out waiting for the coalesced lookup of user " + id, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for the coalesced lookup of user " + id, e);
+        }
+    }
+
+    private static final class Batch {
+        // only modified under the lock, and only read by the thread that took it out of openBatch
+        private final List<Long> ids = new ArrayList<>();
+        private final Thread opener = Thread.currentThread();
+        // set under the lock when the batch leaves openBatch; read by the opener while it waits
+        private volatile boolean closed;
+    }
+}
@@ -2,15 +2,29 @@ package com.example.sbpostgresdockercompose.service;
 
 
 
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDtoResponse getUserById(Long id);
-    List<UserDtoResponse> getAllUsers();
+    // in request order, duplicates and unknown ids left out
+    List<UserDtoResponse> getUsersByIds(List<Long> ids);
+    UserPageResponse getAllUsers(Long after, int limit);
+    // changes whenever the page getAllUsers(after, limit) would return changes; cheaper than the page
+    long getAllUsersDigest(Long after, int limit);
+    void streamAllUsers(Consumer<UserDtoResponse> consumer);
     UserDtoResponse createUser(UserDtoRequest userDtoRequest);
-    UserDtoResponse updateUser(Long id, UserDtoRequest userDtoRequest);
-    void deleteUser(Long id);
+    // expectedVersion: only apply the change at this version (If-Match); null for unconditional
+    UserDtoResponse updateUser(Long id, UserDtoRequest userDtoRequest, Long expectedVersion);
+    void deleteUser(Long id, Long expectedVersion);
+    List<UserDtoResponse> searchUsers(String email, String namePrefix, int limit);
+    List<UserBatchItemResponse> createUsers(List<UserDtoRequest> userDtoRequests);
+    List<UserBatchItemResponse> updateUsers(List<UserBatchUpdateRequest> userBatchUpdateRequests);
+    List<UserBatchItemResponse> deleteUsers(List<Long> ids);
 }
@@ -1,41 +1,111 @@
 package com.example.sbpostgresdockercompose.service;
 
+import com.example.sbpostgresdockercompose.config.CacheConfig;
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
 import com.example.sbpostgresdockercompose.entity.User;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
 import com.example.sbpostgresdockercompose.exception.EntityNotFoundException;
+import com.example.sbpostgresdockercompose.exception.PreconditionFailedException;
 import com.example.sbpostgresdockercompose.repository.UserRepository;
 import com.example.sbpostgresdockercompose.util.DtoMapperUtil;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("users.service")
 public class UserServiceImpl implements UserService {
 
-    public static final String USER_NOT_FOUND = "User not found with id= %d";
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final String BATCH_TOO_LARGE = "Batch size %d exceeds the maximum of %d";
+    public static final String BATCH_ITEM_INVALID = "Batch item must not be null";
+    public static final String SEARCH_CRITERIA_REQUIRED = "At least one of email or namePrefix is required";
 
     private final UserRepository userRepository;
+    private final UserLookupCoalescer userLookupCoalescer;
     private final DtoMapperUtil dtoMapperUtil;
 
     @Override
+    // not sync: Caffeine would run the query inside a ConcurrentHashMap bin lock,
+    // pinning the carrier thread in the virtual-threads mode
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    // read-write, i.e. from the primary: a lagging replica would put a stale or deleted user back
+    // in the cache right after updateUser/deleteUser, where it would stay for the whole TTL
+    @Transactional
     public UserDtoResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format(USER_NOT_FOUND, id)));
-        return dtoMapperUtil.toDto(user, UserDtoResponse.class);
+        return userLookupCoalescer.findById(id)
+                .orElseThrow(() -> EntityNotFoundException.userNotFound(id));
     }
 
     @Override
-    public List<UserDtoResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> dtoMapperUtil.toDto(user, UserDtoResponse.class))
+    @Transactional(readOnly = true)
+    public List<UserDtoResponse> getUsersByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        checkBatchSize(distinctIds.size());
+        Map<Long, UserDtoResponse> users = userRepository.findDtosByIds(distinctIds).stream()
+                .collect(Collectors.toMap(UserDtoResponse::getId, Function.identity()));
+        return distinctIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageResponse getAllUsers(Long after, int limit) {
+        int pageSize = pageSize(limit);
+        // one extra row tells us whether there is a next page without a count query
+        List<UserDtoResponse> users = userRepository.findDtoPageAfter(
+                after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = users.size() > pageSize;
+        List<UserDtoResponse> content = hasNext ? users.subList(0, pageSize) : users;
+        Long nextCursor = hasNext ? users.get(pageSize - 1).getId() : null;
+        return new UserPageResponse(content, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getAllUsersDigest(Long after, int limit) {
+        // the extra row too, as it decides the page's next cursor
+        return userRepository.digestPageAfter(after == null ? 0L : after, pageSize(limit) + 1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDtoResponse> consumer) {
+        try (Stream<UserDtoResponse> users = userRepository.streamAllAsDto()) {
+            users.forEach(consumer);
+        }
+    }
+
     @Override
     public UserDtoResponse createUser(UserDtoRequest userDtoRequest) {
         User user = dtoMapperUtil.toEntity(userDtoRequest, User.class);
@@ -44,18 +114,161 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserDtoResponse updateUser(Long id, UserDtoRequest userDtoRequest) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format(USER_NOT_FOUND, id)));
-        user.setName(userDtoRequest.getName());
-        user.setEmail(userDtoRequest.getEmail());
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserDtoResponse updateUser(Long id, UserDtoRequest userDtoRequest, Long expectedVersion) {
+        String name = userDtoRequest.getName();
+        String email = userDtoRequest.getEmail();
+        Optional<User> updated = expectedVersion == null
+                ? userRepository.updateNameAndEmailReturning(id, name, email)
+                : userRepository.updateNameAndEmailIfVersionReturning(id, name, email, expectedVersion);
+        User user = updated.orElseThrow(() -> notFoundOrVersionMismatch(id, expectedVersion));
         return dtoMapperUtil.toDto(user, UserDtoResponse.class);
     }
 
     @Override
-    public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format(USER_NOT_FOUND, id)));
-        userRepository.delete(user);
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public void deleteUser(Long id, Long expectedVersion) {
+        int deleted = expectedVersion == null
+                ? userRepository.deleteUserById(id)
+                : userRepository.deleteUserByIdAndVersion(id, expectedVersion);
+        if (deleted == 0) {
+            throw notFoundOrVersionMismatch(id, expectedVersion);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDtoResponse> searchUsers(String email, String namePrefix, int limit) {
+        if (StringUtils.hasText(email)) {
+            Optional<UserDtoResponse> user = StringUtils.hasText(namePrefix)
+                    ? userRepository.findDtoByEmailAndNamePrefix(email, namePrefix)
+                    : userRepository.findDtoByEmail(email);
+            return user.stream().toList();
+        }
+        if (StringUtils.hasText(namePrefix)) {
+            return userRepository.findDtoByNamePrefix(namePrefix, PageRequest.of(0, pageSize(limit)));
+        }
+        throw new BadRequestException(SEARCH_CRITERIA_REQUIRED);
+    }
+
+    @Override
+    public List<UserBatchItemResponse> createUsers(List<UserDtoRequest> userDtoRequests) {
+        checkBatchSize(userDtoRequests.size());
+
+        List<UserBatchItemResponse> results = new ArrayList<>(userDtoRequests.size());
+        List<User> users = new ArrayList<>(userDtoRequests.size());
+        for (int i = 0; i < userDtoRequests.size(); i++) {
+            UserDtoRequest userDtoRequest = userDtoRequests.get(i);
+            if (userDtoRequest == null) {
+                results.add(badRequest(i, null));
+            } else {
+                users.add(dtoMapperUtil.toEntity(userDtoRequest, User.class));
+                results.add(null); // filled in once the ids are assigned
+            }
+        }
+
+        // ids come from the pooled sequence on persist; the INSERTs are sent as JDBC batches on flush
+        List<User> savedUsers = userRepository.saveAll(users);
+
+        int saved = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                Long id = savedUsers.get(saved++).getId();
+                results.set(i, new UserBatchItemResponse(i, id, HttpStatus.CREATED.value(), null));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, allEntries = true)
+    public List<UserBatchItemResponse> updateUsers(List<UserBatchUpdateRequest> userBatchUpdateRequests) {
+        checkBatchSize(userBatchUpdateRequests.size());
+
+        Map<Long, User> existingUsers = findAllById(userBatchUpdateRequests.stream()
+                .filter(Objects::nonNull)
+                .map(UserBatchUpdateRequest::getId)
+                .toList());
+
+        List<UserBatchItemResponse> results = new ArrayList<>(userBatchUpdateRequests.size());
+        for (int i = 0; i < userBatchUpdateRequests.size(); i++) {
+            UserBatchUpdateRequest request = userBatchUpdateRequests.get(i);
+            if (request == null || request.getId() == null) {
+                results.add(badRequest(i, request == null ? null : request.getId()));
+                continue;
+            }
+            User user = existingUsers.get(request.getId());
+            if (user == null) {
+                results.add(notFound(i, request.getId()));
+                continue;
+            }
+            // dirty checking turns these into UPDATEs, batched and ordered on flush
+            user.setName(request.getName());
+            user.setEmail(request.getEmail());
+            results.add(new UserBatchItemResponse(i, user.getId(), HttpStatus.OK.value(), null));
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, allEntries = true)
+    public List<UserBatchItemResponse> deleteUsers(List<Long> ids) {
+        checkBatchSize(ids.size());
+
+        Map<Long, User> existingUsers = findAllById(ids);
+        if (!existingUsers.isEmpty()) {
+            userRepository.deleteAllByIdInBatch(existingUsers.keySet());
+        }
+
+        List<UserBatchItemResponse> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(badRequest(i, null));
+            } else if (existingUsers.containsKey(id)) {
+                results.add(new UserBatchItemResponse(i, id, HttpStatus.NO_CONTENT.value(), null));
+            } else {
+                results.add(notFound(i, id));
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, User> findAllById(List<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new BadRequestException(String.format(BATCH_TOO_LARGE, size, MAX_BATCH_SIZE));
+        }
+    }
+
+    // a conditional write matched no row: tell a missing user from a stale version
+    private RuntimeException notFoundOrVersionMismatch(Long id, Long expectedVersion) {
+        if (expectedVersion != null && userRepository.existsById(id)) {
+            return PreconditionFailedException.userVersionMismatch(id, expectedVersion);
+        }
+        return EntityNotFoundException.userNotFound(id);
+    }
+
+    private static UserBatchItemResponse badRequest(int index, Long id) {
+        return new UserBatchItemResponse(index, id, HttpStatus.BAD_REQUEST.value(), BATCH_ITEM_INVALID);
+    }
+
+    private static UserBatchItemResponse notFound(int index, Long id) {
+        return new UserBatchItemResponse(index, id, HttpStatus.NOT_FOUND.value(), EntityNotFoundException.USER_NOT_FOUND + id);
     }
 }
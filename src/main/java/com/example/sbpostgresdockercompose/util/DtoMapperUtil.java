@@ -1,20 +1,95 @@
 package com.example.sbpostgresdockercompose.util;
 
-import lombok.RequiredArgsConstructor;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Maps between entities and DTOs. Known type pairs dispatch to precomputed mappers
+ * (see {@link UserMappers}), also for subclasses of the registered source type such as Hibernate
+ * proxies; any other pair falls back to ModelMapper's reflective matching.
+ * Every mapping is timed as {@code users.mapping}, tagged with the source and target types.
+ */
 @Component
-@RequiredArgsConstructor
 public class DtoMapperUtil {
 
+    private static final String MAPPING_TIMER = "users.mapping";
+
     private final ModelMapper modelMapper;
+    private final MeterRegistry meterRegistry;
+    private final Timer modelMapperTimer;
+
+    // source type -> target type -> mapper; filled in the constructor and read-only afterwards
+    private final Map<Class<?>, Map<Class<?>, Mapping>> mappings = new HashMap<>();
+
+    public DtoMapperUtil(ModelMapper modelMapper, MeterRegistry meterRegistry) {
+        this.modelMapper = modelMapper;
+        this.meterRegistry = meterRegistry;
+        this.modelMapperTimer = mappingTimer("*", "*", "modelmapper");
+
+        register(User.class, UserDtoResponse.class, UserMappers::toResponse);
+        register(User.class, UserDtoRequest.class, UserMappers::toRequest);
+        register(UserDtoRequest.class, User.class, UserMappers::toEntity);
+        register(UserDtoResponse.class, User.class, UserMappers::toEntity);
+    }
 
     public <D, E> D toDto(E entity, Class<D> dtoClass) {
-        return modelMapper.map(entity, dtoClass);
+        return map(entity, dtoClass);
     }
 
     public <E, D> E toEntity(D dto, Class<E> entityClass) {
-        return modelMapper.map(dto, entityClass);
+        return map(dto, entityClass);
+    }
+
+    private <T> T map(Object source, Class<T> targetClass) {
+        Mapping mapping = source == null ? null : findMapping(source.getClass(), targetClass);
+        long start = System.nanoTime();
+        if (mapping == null) {
+            T target = modelMapper.map(source, targetClass);
+            modelMapperTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return target;
+        }
+        T target = targetClass.cast(mapping.mapper().apply(source));
+        mapping.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return target;
+    }
+
+    // walks up from the runtime class, so Hibernate proxies (subclasses of the entity) find its mapping
+    private Mapping findMapping(Class<?> sourceClass, Class<?> targetClass) {
+        for (Class<?> type = sourceClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            Map<Class<?>, Mapping> byTarget = mappings.get(type);
+            Mapping mapping = byTarget == null ? null : byTarget.get(targetClass);
+            if (mapping != null) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S, T> void register(Class<S> sourceClass, Class<T> targetClass, Function<S, T> mapper) {
+        Timer timer = mappingTimer(sourceClass.getSimpleName(), targetClass.getSimpleName(), "registered");
+        mappings.computeIfAbsent(sourceClass, key -> new HashMap<>())
+                .put(targetClass, new Mapping((Function<Object, Object>) mapper, timer));
+    }
+
+    private Timer mappingTimer(String source, String target, String mapper) {
+        return Timer.builder(MAPPING_TIMER)
+                .tag("source", source)
+                .tag("target", target)
+                .tag("mapper", mapper)
+                .register(meterRegistry);
+    }
+
+    private record Mapping(Function<Object, Object> mapper, Timer timer) {
     }
 }
@@ -0,0 +1,39 @@
+package com.example.sbpostgresdockercompose.util;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+
+/**
+ * Hand-written mappings for the user types, registered in {@link DtoMapperUtil}.
+ * Plain field copies: no reflection, and the only allocation is the target object.
+ */
+final class UserMappers {
+
+    private UserMappers() {
+    }
+
+    static UserDtoResponse toResponse(User user) {
+        return new UserDtoResponse(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    static UserDtoRequest toRequest(User user) {
+        return new UserDtoRequest(user.getName(), user.getEmail());
+    }
+
+    static User toEntity(UserDtoRequest request) {
+        User user = new User();
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        return user;
+    }
+
+    static User toEntity(UserDtoResponse response) {
+        User user = new User();
+        user.setId(response.getId());
+        user.setName(response.getName());
+        user.setEmail(response.getEmail());
+        user.setVersion(response.getVersion());
+        return user;
+    }
+}
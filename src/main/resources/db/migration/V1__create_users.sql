@@ -0,0 +1,10 @@
+-- Schema as it existed before migrations were introduced (Hibernate's implicit user_seq, increment 50).
+-- Existing databases are baselined at this version and skip it.
+create sequence if not exists user_seq start with 1 increment by 50;
+
+create table if not exists users
+(
+    id    bigint not null primary key,
+    name  varchar(255),
+    email varchar(255)
+);
@@ -0,0 +1,50 @@
+-- Runs outside a transaction (see the .sql.conf next to this file), so that the indexes are built
+-- concurrently: on an existing, possibly large users table, writes carry on during the build.
+
+-- the baseline never enforced unique emails: name the duplicates instead of failing on the index
+do $$
+declare
+    duplicates text;
+begin
+    select string_agg(format('%s (%s users)', email, users), ', ') into duplicates
+    from (select email, count(*) as users
+          from users
+          where email is not null
+          group by email
+          having count(*) > 1
+          order by count(*) desc, email
+          limit 20) as duplicate;
+    if duplicates is not null then
+        raise exception 'Cannot add the unique index on users.email, duplicate emails: %', duplicates
+            using hint = 'Merge or delete the duplicate users, then restart to run the migration again';
+    end if;
+end
+$$;
+
+-- a concurrent build that failed (or was interrupted) leaves an invalid index behind, which
+-- "if not exists" would then keep: drop it so the build below starts over
+do $$
+declare
+    invalid regclass;
+begin
+    for invalid in
+        select indexrelid::regclass
+        from pg_index
+        where indrelid = 'users'::regclass
+          and not indisvalid
+          and indexrelid::regclass::text in ('users_email_key', 'users_name_prefix_idx', 'users_name_trgm_idx')
+    loop
+        execute format('drop index %s', invalid);
+    end loop;
+end
+$$;
+
+-- exact lookups by email; also rejects duplicate emails
+create unique index concurrently if not exists users_email_key on users (email);
+
+-- name prefix search: LIKE 'abc%' with a known prefix is a btree range scan
+create index concurrently if not exists users_name_prefix_idx on users (name text_pattern_ops);
+
+-- name substring search, and prefix search when the plan is generic (prefix unknown at plan time)
+create extension if not exists pg_trgm;
+create index concurrently if not exists users_name_trgm_idx on users using gin (name gin_trgm_ops);
@@ -0,0 +1,2 @@
+-- optimistic-locking version (User.version), also the user's ETag; existing rows start at 0
+alter table users add column version bigint not null default 0;
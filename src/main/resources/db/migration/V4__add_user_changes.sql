@@ -0,0 +1,46 @@
+-- change feed (GET /api/v1/users/changes): one row per changed user, written by the triggers
+-- below in the transaction that changed it, whatever wrote it (JPA, R2DBC, COPY import)
+create table user_changes (
+    id         bigserial   primary key,
+    -- readers order by (tx_id, id) and only read transactions older than every running one, so
+    -- a change that commits late can never land behind a cursor already handed out
+    tx_id      xid8        not null default pg_current_xact_id(),
+    user_id    bigint      not null,
+    operation  varchar(7)  not null,
+    version    bigint      not null,
+    changed_at timestamptz not null default now()
+);
+
+create index user_changes_tx_id_id_idx on user_changes (tx_id, id);
+-- append-only, so changed_at follows the physical order: a tiny BRIN index serves the retention delete
+create index user_changes_changed_at_idx on user_changes using brin (changed_at);
+
+create function record_user_change() returns trigger language plpgsql as $$
+begin
+    if tg_op = 'DELETE' then
+        insert into user_changes (user_id, operation, version) values (old.id, 'DELETED', old.version);
+    elsif tg_op = 'UPDATE' then
+        insert into user_changes (user_id, operation, version) values (new.id, 'UPDATED', new.version);
+    else
+        insert into user_changes (user_id, operation, version) values (new.id, 'CREATED', new.version);
+    end if;
+    return null;
+end
+$$;
+
+create trigger users_record_change
+    after insert or update or delete on users
+    for each row execute function record_user_change();
+
+-- wakes the listeners. Delivered on commit, and identical notifications of one transaction are
+-- folded into one, so a batch or an import sends a single notification
+create function notify_user_changes() returns trigger language plpgsql as $$
+begin
+    perform pg_notify('user_changes', '');
+    return null;
+end
+$$;
+
+create trigger users_notify_changes
+    after insert or update or delete on users
+    for each statement execute function notify_user_changes();
@@ -0,0 +1,16 @@
+-- Idempotency-Key records shared by all instances (app.idempotency.store=jdbc)
+create table idempotency_keys (
+    -- request method, path and the client's key
+    key          varchar(512)  primary key,
+    -- SHA-256 of the query string and body, to refuse a key reused for another request
+    fingerprint  bytea         not null,
+    -- the stored response; status is null while the first request is still running
+    status       integer,
+    content_type varchar(255),
+    location     varchar(2048),
+    etag         varchar(255),
+    body         bytea,
+    created_at   timestamptz   not null default now()
+);
+
+create index idempotency_keys_created_at_idx on idempotency_keys (created_at);
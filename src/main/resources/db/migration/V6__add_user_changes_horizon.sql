@@ -0,0 +1,9 @@
+-- position of the newest change deleted by the retention job: a cursor before it may have missed
+-- changes, so the feed answers it with 410 Gone instead of resuming at the oldest change left
+create table user_changes_horizon (
+    singleton boolean primary key default true check (singleton),
+    tx_id     xid8    not null,
+    id        bigint  not null
+);
+
+insert into user_changes_horizon (tx_id, id) values ('0'::xid8, 0);
@@ -0,0 +1,3 @@
+-- identifies the request holding a key: after a lock-timeout takeover, the abandoned request's
+-- late complete or release matches no row instead of overwriting or deleting the new claim
+alter table idempotency_keys add column claim_token uuid;
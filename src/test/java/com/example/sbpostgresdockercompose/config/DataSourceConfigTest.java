@@ -0,0 +1,38 @@
+package com.example.sbpostgresdockercompose.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceConfigTest {
+
+    @Test
+    void poolSize_notConfigured_keepsHikariDefault() {
+        // Arrange
+        AppDataSourceProperties.Pool pool = new AppDataSourceProperties.Pool();
+
+        // Act & Assert
+        assertThat(DataSourceConfig.poolSize(pool, 8)).isNull();
+    }
+
+    @Test
+    void poolSize_connectionsPerCore_usesAvailableProcessors() {
+        // Arrange
+        AppDataSourceProperties.Pool pool = new AppDataSourceProperties.Pool();
+        pool.setConnectionsPerCore(2);
+
+        // Act & Assert
+        assertThat(DataSourceConfig.poolSize(pool, 4)).isEqualTo(9);
+    }
+
+    @Test
+    void poolSize_databaseCores_overridesAvailableProcessors() {
+        // Arrange
+        AppDataSourceProperties.Pool pool = new AppDataSourceProperties.Pool();
+        pool.setConnectionsPerCore(2);
+        pool.setDatabaseCores(16);
+
+        // Act & Assert
+        assertThat(DataSourceConfig.poolSize(pool, 4)).isEqualTo(33);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.sbpostgresdockercompose.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Statement lagStatement;
+
+    @Mock
+    private ResultSet lagResultSet;
+
+    private ReplicaRoutingDataSource routingDataSourceUnderTest;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(lagStatement);
+        when(lagStatement.executeQuery(anyString())).thenReturn(lagResultSet);
+        when(lagResultSet.next()).thenReturn(true);
+
+        routingDataSourceUnderTest = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), Duration.ofSeconds(5));
+        routingDataSourceUnderTest.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_ReadWriteTransaction_UsesPrimary() throws SQLException {
+        // Arrange
+        replicaReports("streaming", 1.0, 0.0);
+        routingDataSourceUnderTest.checkReplicaLag();
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionAndReplicaInSync_UsesReplica() throws SQLException {
+        // Arrange
+        replicaReports("streaming", 1.0, 0.5);
+        routingDataSourceUnderTest.checkReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionBeforeFirstLagCheck_UsesPrimary() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionAndReplicaLagging_FallsBackToPrimary() throws SQLException {
+        // Arrange
+        replicaReports("streaming", 1.0, 60.0);
+        routingDataSourceUnderTest.checkReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionAndReplicaUnreachable_FallsBackToPrimary() throws SQLException {
+        // Arrange
+        replicaReports("streaming", 1.0, 0.0);
+        routingDataSourceUnderTest.checkReplicaLag();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        routingDataSourceUnderTest.checkReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionAndReceiverStopped_FallsBackToPrimary() throws SQLException {
+        // Arrange: nothing arrives, so nothing is left to replay and the replay lag reads zero
+        replicaReports(null, 0.0, 0.0);
+        routingDataSourceUnderTest.checkReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionAndReceiverSilent_FallsBackToPrimary() throws SQLException {
+        // Arrange: streaming on paper, but nothing heard from the primary for ten minutes
+        replicaReports("streaming", 600.0, 0.0);
+        routingDataSourceUnderTest.checkReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSourceUnderTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    // a null status means no WAL receiver is running
+    private void replicaReports(String receiverStatus, double receiverSilenceSeconds, double lagSeconds)
+            throws SQLException {
+        when(lagResultSet.getBoolean(1)).thenReturn(receiverStatus != null);
+        when(lagResultSet.getString(2)).thenReturn(receiverStatus);
+        when(lagResultSet.getDouble(3)).thenReturn(receiverSilenceSeconds);
+        when(lagResultSet.wasNull()).thenReturn(receiverStatus == null);
+        when(lagResultSet.getDouble(4)).thenReturn(lagSeconds);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.sbpostgresdockercompose.config;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+import com.example.sbpostgresdockercompose.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuntimeHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registerHints_dtos_canBeReadAndWrittenByJacksonAndModelMapper() throws Exception {
+        // Act
+        new RuntimeHintsConfig.UserRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(UserDtoResponse.class.getDeclaredConstructor())).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UserDtoResponse.class, "getVersion")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UserDtoRequest.class, "setEmail")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(User.class, "getName")).accepts(hints);
+    }
+
+    @Test
+    void registerHints_nestedEnum_isRegistered() {
+        // Act
+        new RuntimeHintsConfig.UserRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserIngestionStatus.State.class)).accepts(hints);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.exception.EntityNotFoundException;
+import com.example.sbpostgresdockercompose.service.ReactiveUserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(SimpleMeterRegistry.class) // for the GlobalExceptionHandler error counters
+@WebMvcTest(ReactiveUserController.class)
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveUserService reactiveUserService;
+
+    @Test
+    void getAllUsers_ReturnsPageOfUsers() throws Exception {
+        // Arrange
+        UserDtoResponse user = new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L);
+        when(reactiveUserService.getAllUsers(null, 50)).thenReturn(Mono.just(new UserPageResponse(List.of(user), 1L)));
+
+        // Act & Assert
+        performAsync(get("/api/v2/users").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value(1L));
+    }
+
+    @Test
+    void exportUsers_StreamsNdjson() throws Exception {
+        // Arrange
+        when(reactiveUserService.streamAllUsers()).thenReturn(Flux.just(
+                new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L),
+                new UserDtoResponse(2L, "Jane Smith", "jane.smith@example.com", 0L)));
+
+        // Act & Assert
+        performAsync(get("/api/v2/users/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"id\":1,\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}\n"
+                                + "{\"id\":2,\"name\":\"Jane Smith\",\"email\":\"jane.smith@example.com\"}\n"));
+    }
+
+    @Test
+    void getUserById_ExistingUser_ReturnsUserDtoResponse() throws Exception {
+        // Arrange
+        when(reactiveUserService.getUserById(1L)).thenReturn(Mono.just(new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L)));
+
+        // Act & Assert
+        performAsync(get("/api/v2/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"));
+    }
+
+    @Test
+    void getUserById_NonExistingUser_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(reactiveUserService.getUserById(999L)).thenReturn(Mono.error(new EntityNotFoundException("User not found with id=999")));
+
+        // Act & Assert
+        performAsync(get("/api/v2/users/{id}", 999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("User not found with id=999"));
+    }
+
+    @Test
+    void createUser_ReturnsCreatedUserDtoResponse() throws Exception {
+        // Arrange
+        when(reactiveUserService.createUser(any(UserDtoRequest.class)))
+                .thenReturn(Mono.just(new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L)));
+
+        // Act & Assert
+        performAsync(post("/api/v2/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/v2/users/1"));
+    }
+
+    @Test
+    void updateUser_ExistingUser_ReturnsUpdatedUserDtoResponse() throws Exception {
+        // Arrange
+        UserDtoRequest userDtoRequest = new UserDtoRequest("John Doe", "john.doe@example.com");
+        when(reactiveUserService.updateUser(1L, userDtoRequest))
+                .thenReturn(Mono.just(new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L)));
+
+        // Act & Assert
+        performAsync(put("/api/v2/users/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("john.doe@example.com"));
+    }
+
+    @Test
+    void deleteUser_ExistingUser_ReturnsNoContent() throws Exception {
+        // Arrange
+        when(reactiveUserService.deleteUser(1L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        performAsync(delete("/api/v2/users/{id}", 1L))
+                .andExpect(status().isNoContent());
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
+}
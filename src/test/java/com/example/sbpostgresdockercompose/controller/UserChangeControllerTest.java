@@ -0,0 +1,109 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.dto.UserChangePage;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
+import com.example.sbpostgresdockercompose.exception.ChangeCursorExpiredException;
+import com.example.sbpostgresdockercompose.service.UserChangeService;
+import com.example.sbpostgresdockercompose.service.UserChangeSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(SimpleMeterRegistry.class) // for the GlobalExceptionHandler error counters
+@EnableConfigurationProperties(UserChangeProperties.class)
+@WebMvcTest(controllers = UserChangeController.class, properties = "app.changes.enabled=true")
+class UserChangeControllerTest {
+
+    private static final UserChange CHANGE = new UserChange("7-1", 1L, UserChange.Operation.UPDATED, 2L,
+            Instant.parse("2024-01-01T00:00:00Z"));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserChangeService userChangeService;
+
+    @Test
+    void getChanges_ReturnsPageWithNextCursor() throws Exception {
+        // Arrange
+        when(userChangeService.getChanges("5-0", 100)).thenReturn(new UserChangePage(List.of(CHANGE), "7-1"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/changes").param("since", "5-0").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].userId").value(1L))
+                .andExpect(jsonPath("$.changes[0].operation").value("UPDATED"))
+                .andExpect(jsonPath("$.nextCursor").value("7-1"));
+    }
+
+    @Test
+    void getChanges_InvalidCursor_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(userChangeService.getChanges("latest", 100))
+                .thenThrow(new BadRequestException("Invalid change cursor: latest"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/changes").param("since", "latest").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_ExpiredCursor_ReturnsGone() throws Exception {
+        // Arrange
+        when(userChangeService.getChanges("5-0", 100)).thenThrow(new ChangeCursorExpiredException("5-0"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/changes").param("since", "5-0").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.detail").value(containsString("5-0")));
+    }
+
+    @Test
+    void streamChanges_ResumesFromLastEventId() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            UserChangeSink sink = invocation.getArgument(1);
+            sink.send(List.of(CHANGE));
+            sink.complete();
+            return null;
+        }).when(userChangeService).stream(eq("5-0"), any());
+
+        // Act
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/users/changes")
+                        .param("since", "1-0")
+                        .header("Last-Event-ID", "5-0")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id:7-1")))
+                .andExpect(content().string(containsString("\"userId\":1")));
+    }
+}
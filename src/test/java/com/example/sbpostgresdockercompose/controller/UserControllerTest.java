@@ -1,30 +1,62 @@
 package com.example.sbpostgresdockercompose.controller;
 
+import com.example.sbpostgresdockercompose.config.JacksonConfig;
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
 import com.example.sbpostgresdockercompose.exception.EntityNotFoundException;
+import com.example.sbpostgresdockercompose.exception.PreconditionFailedException;
+import com.example.sbpostgresdockercompose.repository.CopyFormat;
+import com.example.sbpostgresdockercompose.service.UserCopyService;
 import com.example.sbpostgresdockercompose.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import({SimpleMeterRegistry.class, JacksonConfig.class}) // error counters; Smile and CBOR converters
 @WebMvcTest(UserController.class)
 class UserControllerTest {
 
@@ -34,36 +66,176 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserCopyService userCopyService;
+
     @Test
-    void getAllUsers_ReturnsListOfUsers() throws Exception {
+    void getAllUsers_ReturnsPageOfUsers() throws Exception {
         // Arrange
         UserDtoResponse user1 = new UserDtoResponse();
         user1.setId(1L);
         user1.setName("John Doe");
         user1.setEmail("john.doe@example.com");
+        user1.setVersion(0L);
 
         UserDtoResponse user2 = new UserDtoResponse();
         user2.setId(2L);
         user2.setName("Jane Smith");
         user2.setEmail("jane.smith@example.com");
+        user2.setVersion(3L);
 
         List<UserDtoResponse> userList = Arrays.asList(user1, user2);
 
-        when(userService.getAllUsers()).thenReturn(userList);
+        when(userService.getAllUsers(null, 50)).thenReturn(new UserPageResponse(userList, 2L));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/users")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(userList.size()))
+                .andExpect(jsonPath("$.content.size()").value(userList.size()))
+                .andExpect(jsonPath("$.content[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].name").value(user1.getName()))
+                .andExpect(jsonPath("$.content[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.content[1].id").value(user2.getId()))
+                .andExpect(jsonPath("$.content[1].name").value(user2.getName()))
+                .andExpect(jsonPath("$.content[1].email").value(user2.getEmail()))
+                .andExpect(jsonPath("$.nextCursor").value(2L));
+    }
+
+    @Test
+    void getUsersByIds_ReturnsUsersFromOneLookup() throws Exception {
+        // Arrange
+        UserDtoResponse user1 = new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L);
+        UserDtoResponse user3 = new UserDtoResponse(3L, "Jane Smith", "jane.smith@example.com", 0L);
+        when(userService.getUsersByIds(List.of(1L, 2L, 3L))).thenReturn(List.of(user1, user3));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(3));
+    }
+
+    @Test
+    void getAllUsers_IfNoneMatchCurrentETag_ReturnsNotModifiedWithoutLoadingThePage() throws Exception {
+        // Arrange
+        UserPageResponse page = new UserPageResponse(List.of(new UserDtoResponse(1L, "A", "a@example.com", 0L)), null);
+        when(userService.getAllUsersDigest(null, 50)).thenReturn(42L);
+        when(userService.getAllUsers(null, 50)).thenReturn(page);
+
+        String eTag = mockMvc.perform(get("/api/v1/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+        verify(userService, times(1)).getAllUsers(null, 50);
+    }
+
+    @Test
+    void getAllUsers_RowVersionChanged_ChangesETag() throws Exception {
+        // Arrange
+        when(userService.getAllUsersDigest(null, 50)).thenReturn(42L).thenReturn(43L);
+        when(userService.getAllUsers(null, 50))
+                .thenReturn(new UserPageResponse(List.of(new UserDtoResponse(1L, "A", "a@example.com", 0L)), null))
+                .thenReturn(new UserPageResponse(List.of(new UserDtoResponse(1L, "B", "a@example.com", 1L)), null));
+
+        String eTag = mockMvc.perform(get("/api/v1/users"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("B"));
+    }
+
+    @Test
+    void getAllUsers_WithCursorAndLimit_PassesThemToService() throws Exception {
+        // Arrange
+        when(userService.getAllUsers(10L, 5)).thenReturn(new UserPageResponse(List.of(), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users")
+                        .param("after", "10")
+                        .param("limit", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportUsers_StreamsAllUsersAsJsonArray() throws Exception {
+        // Arrange
+        UserDtoResponse user1 = new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L);
+        UserDtoResponse user2 = new UserDtoResponse(2L, "Jane Smith", "jane.smith@example.com", 0L);
+
+        doAnswer(invocation -> {
+            Consumer<UserDtoResponse> consumer = invocation.getArgument(0);
+            consumer.accept(user1);
+            consumer.accept(user2);
+            return null;
+        }).when(userService).streamAllUsers(any(Consumer.class));
+
+        // Act
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
                 .andExpect(jsonPath("$[0].id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].name").value(user1.getName()))
-                .andExpect(jsonPath("$[0].email").value(user1.getEmail()))
-                .andExpect(jsonPath("$[1].id").value(user2.getId()))
-                .andExpect(jsonPath("$[1].name").value(user2.getName()))
                 .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
     }
 
+    @Test
+    void exportUsers_FormatCsv_StreamsCopyOutput() throws Exception {
+        // Arrange
+        String csv = "id,name,email,version\n1,John Doe,john.doe@example.com,0\n";
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write(csv.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(userCopyService).exportUsers(eq(CopyFormat.CSV), any(OutputStream.class));
+
+        // Act
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/users/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string(csv));
+    }
+
+    @Test
+    void importUsers_CsvBody_ReturnsImportCounts() throws Exception {
+        // Arrange
+        String csv = "name,email\nJohn Doe,john.doe@example.com\nJohn Doe,john.doe@example.com\n,bad\n";
+        when(userCopyService.importUsers(eq(CopyFormat.CSV), any(InputStream.class)))
+                .thenReturn(new UserImportResponse(3L, 1L, 1L, 1L));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/users/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.invalid").value(1));
+    }
+
     @Test
     void getUserById_ExistingUser_ReturnsUserDtoResponse() throws Exception {
         // Arrange
@@ -72,6 +244,7 @@ class UserControllerTest {
         expectedDtoResponse.setId(userId);
         expectedDtoResponse.setName("John Doe");
         expectedDtoResponse.setEmail("john.doe@example.com");
+        expectedDtoResponse.setVersion(2L);
 
         when(userService.getUserById(userId)).thenReturn(expectedDtoResponse);
 
@@ -81,7 +254,44 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(expectedDtoResponse.getId()))
                 .andExpect(jsonPath("$.name").value(expectedDtoResponse.getName()))
-                .andExpect(jsonPath("$.email").value(expectedDtoResponse.getEmail()));
+                .andExpect(jsonPath("$.email").value(expectedDtoResponse.getEmail()))
+                .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    void getUserById_AcceptSmileOrCbor_ReturnsTheSameUserInThatFormat() throws Exception {
+        // Arrange
+        when(userService.getUserById(1L)).thenReturn(new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 2L));
+
+        for (ObjectMapper format : List.of(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            String mediaType = format.getFactory() instanceof SmileFactory ? "application/x-jackson-smile" : "application/cbor";
+
+            // Act
+            MvcResult result = mockMvc.perform(get("/api/v1/users/{id}", 1L).accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mediaType))
+                    .andReturn();
+
+            // Assert: written by UserDtoResponseSerializer, like the JSON
+            JsonNode user = format.readTree(result.getResponse().getContentAsByteArray());
+            assertThat(user.get("id").asLong()).isEqualTo(1L);
+            assertThat(user.get("name").asText()).isEqualTo("John Doe");
+            assertThat(user.get("email").asText()).isEqualTo("john.doe@example.com");
+            assertThat(user.get("version").asLong()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void getUserById_IfNoneMatchCurrentVersion_ReturnsNotModified() throws Exception {
+        // Arrange
+        when(userService.getUserById(1L)).thenReturn(new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/{id}", 1L)
+                        .header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -95,8 +305,43 @@ class UserControllerTest {
         mockMvc.perform(get("/api/v1/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.code").value("404 NOT_FOUND"))
-                .andExpect(jsonPath("$.message").value("User not found with id=999"));
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("User not found with id=999"))
+                .andExpect(jsonPath("$.instance").value("/api/v1/users/999"));
+    }
+
+    @Test
+    void getUserById_MalformedId_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/{id}", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void getUserById_UnexpectedError_ReturnsInternalServerErrorWithoutDetails() throws Exception {
+        // Arrange
+        when(userService.getUserById(1L)).thenThrow(new IllegalStateException("connection refused: db-host:5432"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/{id}", 1L))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(500))
+                .andExpect(jsonPath("$.detail").value("Unexpected error"));
+    }
+
+    @Test
+    void getUserById_IllegalArgumentFromBelow_ReturnsInternalServerError() throws Exception {
+        // Arrange: not a client error, and its message must not reach the client
+        when(userService.getUserById(1L)).thenThrow(new IllegalArgumentException("Unknown column type: 1111"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/{id}", 1L))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.detail").value("Unexpected error"));
     }
 
     @Test
@@ -110,6 +355,7 @@ class UserControllerTest {
         expectedDtoResponse.setId(1L);
         expectedDtoResponse.setName("John Doe");
         expectedDtoResponse.setEmail("john.doe@example.com");
+        expectedDtoResponse.setVersion(2L);
 
         when(userService.createUser(any(UserDtoRequest.class))).thenReturn(expectedDtoResponse);
 
@@ -136,8 +382,9 @@ class UserControllerTest {
         expectedDtoResponse.setId(userId);
         expectedDtoResponse.setName("John Doe");
         expectedDtoResponse.setEmail("john.doe@example.com");
+        expectedDtoResponse.setVersion(2L);
 
-        when(userService.updateUser(userId, userDtoRequest)).thenReturn(expectedDtoResponse);
+        when(userService.updateUser(userId, userDtoRequest, null)).thenReturn(expectedDtoResponse);
 
         // Act & Assert
         mockMvc.perform(put("/api/v1/users/{id}", userId)
@@ -149,6 +396,41 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value(expectedDtoResponse.getEmail()));
     }
 
+    @Test
+    void updateUser_IfMatchStaleVersion_ReturnsPreconditionFailed() throws Exception {
+        // Arrange
+        Long userId = 1L;
+        UserDtoRequest userDtoRequest = new UserDtoRequest("John Doe", "john.doe@example.com");
+
+        when(userService.updateUser(userId, userDtoRequest, 1L))
+                .thenThrow(PreconditionFailedException.userVersionMismatch(userId, 1L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/v1/users/{id}", userId)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @Test
+    void updateUser_IfMatchWeakETag_NeverMatches() throws Exception {
+        // Arrange
+        Long userId = 1L;
+        UserDtoRequest userDtoRequest = new UserDtoRequest("John Doe", "john.doe@example.com");
+
+        when(userService.updateUser(userId, userDtoRequest, -1L))
+                .thenThrow(PreconditionFailedException.userVersionMismatch(userId, -1L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/v1/users/{id}", userId)
+                        .header("If-Match", "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void updateUser_NonExistingUser_ReturnsNotFound() throws Exception {
         // Arrange
@@ -157,15 +439,15 @@ class UserControllerTest {
         userDtoRequest.setName("John Doe");
         userDtoRequest.setEmail("john.doe@example.com");
 
-        when(userService.updateUser(userId, userDtoRequest)).thenThrow(new EntityNotFoundException("User not found with id=" + userId));
+        when(userService.updateUser(userId, userDtoRequest, null)).thenThrow(new EntityNotFoundException("User not found with id=" + userId));
 
         // Act & Assert
         mockMvc.perform(put("/api/v1/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.code").value("404 NOT_FOUND"))
-                .andExpect(jsonPath("$.message").value("User not found with id=999"));
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("User not found with id=999"));
     }
 
     @Test
@@ -177,6 +459,18 @@ class UserControllerTest {
         mockMvc.perform(delete("/api/v1/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
+
+        verify(userService).deleteUser(userId, null);
+    }
+
+    @Test
+    void deleteUser_IfMatch_PassesExpectedVersion() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/api/v1/users/{id}", 1L)
+                        .header("If-Match", "\"4\""))
+                .andExpect(status().isNoContent());
+
+        verify(userService).deleteUser(1L, 4L);
     }
 
     @Test
@@ -184,14 +478,123 @@ class UserControllerTest {
         // Arrange
         Long userId = 999L;
 
-        doThrow(new EntityNotFoundException("User not found with id=" + userId)).when(userService).deleteUser(userId);
+        doThrow(new EntityNotFoundException("User not found with id=" + userId)).when(userService).deleteUser(userId, null);
 
         // Act & Assert
         mockMvc.perform(delete("/api/v1/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.code").value("404 NOT_FOUND"))
-                .andExpect(jsonPath("$.message").value("User not found with id=999"));
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("User not found with id=999"));
+    }
+
+    @Test
+    void createUsers_ReturnsPerItemResults() throws Exception {
+        // Arrange
+        List<UserDtoRequest> requests = List.of(
+                new UserDtoRequest("John Doe", "john.doe@example.com"),
+                new UserDtoRequest("Jane Smith", "jane.smith@example.com"));
+
+        when(userService.createUsers(requests)).thenReturn(List.of(
+                new UserBatchItemResponse(0, 1L, 201, null),
+                new UserBatchItemResponse(1, 2L, 201, null)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"},"
+                                + "{\"name\":\"Jane Smith\",\"email\":\"jane.smith@example.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[1].status").value(201));
+    }
+
+    @Test
+    void createUsers_TooManyItems_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(userService.createUsers(anyList())).thenThrow(new BadRequestException("Batch size 1001 exceeds the maximum of 1000"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.detail").value("Batch size 1001 exceeds the maximum of 1000"));
+    }
+
+    @Test
+    void updateUsers_ReturnsPerItemResults() throws Exception {
+        // Arrange
+        List<UserBatchUpdateRequest> requests = List.of(new UserBatchUpdateRequest(1L, "John Doe", "john.doe@example.com"));
+
+        when(userService.updateUsers(requests)).thenReturn(List.of(new UserBatchItemResponse(0, 1L, 200, null)));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200));
+    }
+
+    @Test
+    void updateUsers_ConcurrentModification_ReturnsConflict() throws Exception {
+        // Arrange
+        List<UserBatchUpdateRequest> requests = List.of(new UserBatchUpdateRequest(1L, "John Doe", "john.doe@example.com"));
+
+        when(userService.updateUsers(requests)).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}]"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("The data was modified concurrently, retry the request"));
+    }
+
+    @Test
+    void deleteUsers_ReturnsPerItemResults() throws Exception {
+        // Arrange
+        when(userService.deleteUsers(List.of(1L, 2L))).thenReturn(List.of(
+                new UserBatchItemResponse(0, 1L, 204, null),
+                new UserBatchItemResponse(1, 2L, 404, "User not found with id= 2")));
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].message").value("User not found with id= 2"));
+    }
+
+    @Test
+    void searchUsers_ReturnsMatchingUsers() throws Exception {
+        // Arrange
+        when(userService.searchUsers("john.doe@example.com", null, 50))
+                .thenReturn(List.of(new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/search")
+                        .param("email", "john.doe@example.com")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void searchUsers_NoCriteria_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(userService.searchUsers(null, null, 50))
+                .thenThrow(new BadRequestException("At least one of email or namePrefix is required"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/search")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
-}
\ No newline at end of file
+}
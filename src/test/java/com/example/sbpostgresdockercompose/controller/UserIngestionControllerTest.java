@@ -0,0 +1,91 @@
+package com.example.sbpostgresdockercompose.controller;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+import com.example.sbpostgresdockercompose.exception.IngestionQueueFullException;
+import com.example.sbpostgresdockercompose.service.UserIngestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(SimpleMeterRegistry.class) // for the GlobalExceptionHandler error counters
+@WebMvcTest(controllers = UserIngestionController.class, properties = "app.ingestion.enabled=true")
+class UserIngestionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserIngestionService userIngestionService;
+
+    @Test
+    void submitUser_ReturnsAcceptedWithTrackingId() throws Exception {
+        // Arrange
+        UUID trackingId = UUID.randomUUID();
+        when(userIngestionService.submit(new UserDtoRequest("John Doe", "john.doe@example.com")))
+                .thenReturn(new UserIngestionStatus(trackingId, UserIngestionStatus.State.PENDING, null, null));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/users/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/users/ingest/" + trackingId))
+                .andExpect(jsonPath("$.trackingId").value(trackingId.toString()))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+    }
+
+    @Test
+    void submitUser_QueueFull_ReturnsTooManyRequests() throws Exception {
+        // Arrange
+        when(userIngestionService.submit(new UserDtoRequest("John Doe", "john.doe@example.com")))
+                .thenThrow(new IngestionQueueFullException("Ingestion queue is full, retry later"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/users/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void getStatus_CreatedUser_ReturnsStatusWithUserId() throws Exception {
+        // Arrange
+        UUID trackingId = UUID.randomUUID();
+        when(userIngestionService.getStatus(trackingId))
+                .thenReturn(Optional.of(new UserIngestionStatus(trackingId, UserIngestionStatus.State.CREATED, 42L, null)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/ingest/{trackingId}", trackingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("CREATED"))
+                .andExpect(jsonPath("$.userId").value(42L));
+    }
+
+    @Test
+    void getStatus_UnknownTrackingId_ReturnsNotFound() throws Exception {
+        // Arrange
+        UUID trackingId = UUID.randomUUID();
+        when(userIngestionService.getStatus(trackingId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/ingest/{trackingId}", trackingId))
+                .andExpect(status().isNotFound());
+    }
+}
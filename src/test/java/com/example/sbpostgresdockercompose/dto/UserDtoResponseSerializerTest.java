@@ -0,0 +1,42 @@
+package com.example.sbpostgresdockercompose.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDtoResponseSerializerTest {
+
+    private final ObjectMapper beanSerializer = new ObjectMapper();
+    private final ObjectMapper userSerializer = new ObjectMapper()
+            .registerModule(new SimpleModule().addSerializer(new UserDtoResponseSerializer()));
+
+    @Test
+    void serialize_matchesBeanSerializerOutput() throws Exception {
+        // Arrange
+        List<UserDtoResponse> users = List.of(
+                new UserDtoResponse(1L, "John \"Johnny\" Doe", "john@example.com", 3L),
+                new UserDtoResponse(2L, null, null, null));
+
+        // Act
+        String json = userSerializer.writeValueAsString(users);
+
+        // Assert
+        assertThat(json).isEqualTo(beanSerializer.writeValueAsString(users));
+    }
+
+    @Test
+    void serialize_roundTripsThroughDeserializer() throws Exception {
+        // Arrange
+        UserDtoResponse user = new UserDtoResponse(1L, "Jöhn", "john@example.com", 0L);
+
+        // Act
+        UserDtoResponse read = userSerializer.readValue(userSerializer.writeValueAsBytes(user), UserDtoResponse.class);
+
+        // Assert
+        assertThat(read).isEqualTo(user);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GcraRateLimiterTest {
+
+    // 10 per second, i.e. one unit every 100 ms, at most 5 at once
+    private static final GcraRateLimiter.Limit LIMIT = new GcraRateLimiter.Limit(10, 5);
+
+    private final AtomicLong now = new AtomicLong();
+    private final GcraRateLimiter rateLimiter = new GcraRateLimiter(now::get);
+
+    @Test
+    void tryAcquire_AdmitsBurstThenRefusesUntilRefilled() {
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("client", 1, LIMIT)).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("client", 1, LIMIT)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rateLimiter.tryAcquire("client", 1, LIMIT)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 1, LIMIT)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_CostTakesSeveralUnits() {
+        // Act & Assert
+        assertThat(rateLimiter.tryAcquire("client", 3, LIMIT)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 3, LIMIT)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rateLimiter.tryAcquire("client", 2, LIMIT)).isZero();
+    }
+
+    @Test
+    void tryAcquire_CostAboveBurst_IsChargedAsBurst() {
+        // Act & Assert
+        assertThat(rateLimiter.tryAcquire("client", 100, LIMIT)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 1, LIMIT)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_ClientsHaveSeparateBuckets() {
+        // Arrange
+        rateLimiter.tryAcquire("flooding", 5, LIMIT);
+
+        // Act & Assert
+        assertThat(rateLimiter.tryAcquire("flooding", 1, LIMIT)).isPositive();
+        assertThat(rateLimiter.tryAcquire("other", 1, LIMIT)).isZero();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void tryAcquire_RefusesAboveLimit() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10, 1.5);
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void release_SteadyLatencyAtTheLimit_RaisesIt() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 100, 1.5);
+
+        // Act
+        runAtLimit(limiter, FAST, 50);
+
+        // Assert
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void release_RisingLatency_LowersLimit() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(50, 1, 100, 1.5);
+        runAtLimit(limiter, FAST, 5);
+        int before = limiter.getLimit();
+
+        // Act
+        runAtLimit(limiter, SLOW, 5);
+
+        // Assert
+        assertThat(limiter.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void release_LittleConcurrency_KeepsLimit() {
+        // Arrange
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 1, 100, 1.5);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    // fills every slot, then completes them all with the given latency, round after round
+    private static void runAtLimit(GradientConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+}
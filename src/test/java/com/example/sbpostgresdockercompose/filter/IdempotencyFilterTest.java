@@ -0,0 +1,225 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.config.IdempotencyProperties;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore;
+import com.example.sbpostgresdockercompose.repository.InMemoryIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\"}";
+
+    private final AtomicInteger usersCreated = new AtomicInteger();
+    private int status = HttpServletResponse.SC_CREATED;
+    private final HttpServlet createUserEndpoint = new HttpServlet() {
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int id = usersCreated.incrementAndGet();
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.setHeader("Location", "/api/v1/users/" + id);
+            response.getWriter().write("{\"id\":" + id + ",\"request\":" + body + "}");
+        }
+    };
+
+    private IdempotencyFilter idempotencyFilter;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyStore idempotencyStore = new InMemoryIdempotencyStore(new IdempotencyProperties());
+        idempotencyFilter = new IdempotencyFilter(idempotencyStore, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void doFilter_Retry_ReplaysFirstResponseWithoutCreatingAgain() throws Exception {
+        // Act
+        MockHttpServletResponse first = perform(createRequest("key-1", BODY));
+        MockHttpServletResponse retry = perform(createRequest("key-1", BODY));
+
+        // Assert
+        assertThat(usersCreated).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+        assertThat(retry.getHeader("Location")).isEqualTo("/api/v1/users/1");
+        assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).contains("john.doe@example.com");
+        assertThat(first.getHeader("Idempotent-Replayed")).isNull();
+    }
+
+    @Test
+    void doFilter_DifferentKeys_CreateEach() throws Exception {
+        // Act
+        perform(createRequest("key-1", BODY));
+        perform(createRequest("key-2", BODY));
+
+        // Assert
+        assertThat(usersCreated).hasValue(2);
+    }
+
+    @Test
+    void doFilter_KeyReusedForOtherBody_ReturnsUnprocessableEntity() throws Exception {
+        // Arrange
+        perform(createRequest("key-1", BODY));
+
+        // Act
+        MockHttpServletResponse response = perform(createRequest("key-1", BODY.replace("John", "Jane")));
+
+        // Assert
+        assertThat(usersCreated).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(response.getContentType()).isEqualTo("application/problem+json");
+    }
+
+    @Test
+    void doFilter_RetryWhileFirstRunning_ReturnsConflict() throws Exception {
+        // Arrange: the retry arrives while the first request is being handled
+        MockHttpServletResponse[] retry = new MockHttpServletResponse[1];
+        HttpServlet slowEndpoint = new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                retry[0] = perform(createRequest("key-1", BODY), createUserEndpoint);
+                response.setStatus(HttpServletResponse.SC_CREATED);
+            }
+        };
+
+        // Act
+        MockHttpServletResponse first = perform(createRequest("key-1", BODY), slowEndpoint);
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+        assertThat(usersCreated).hasValue(0);
+        assertThat(retry[0].getStatus()).isEqualTo(HttpServletResponse.SC_CONFLICT);
+        assertThat(retry[0].getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void doFilter_ServerError_IsNotStored() throws Exception {
+        // Arrange
+        status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        perform(createRequest("key-1", BODY));
+        status = HttpServletResponse.SC_CREATED;
+
+        // Act
+        MockHttpServletResponse retry = perform(createRequest("key-1", BODY));
+
+        // Assert
+        assertThat(usersCreated).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+    }
+
+    @Test
+    void doFilter_ConcurrentModificationConflict_IsNotStored() throws Exception {
+        // Arrange: the first attempt loses a @Version race and gets the handler's 409
+        status = HttpServletResponse.SC_CONFLICT;
+        MockHttpServletResponse first = perform(createRequest("key-1", BODY));
+        status = HttpServletResponse.SC_CREATED;
+
+        // Act
+        MockHttpServletResponse retry = perform(createRequest("key-1", BODY));
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(HttpServletResponse.SC_CONFLICT);
+        assertThat(usersCreated).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+        assertThat(retry.getHeader("Idempotent-Replayed")).isNull();
+    }
+
+    @Test
+    void doFilter_NonBlockingRead_ServesTheCachedBody() throws Exception {
+        // Arrange: a handler reading the body through a ReadListener, as async handlers do
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allDataRead = new boolean[1];
+        HttpServlet nonBlockingEndpoint = new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ServletInputStream inputStream = request.getInputStream();
+                inputStream.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        byte[] buffer = new byte[16];
+                        while (inputStream.isReady() && !inputStream.isFinished()) {
+                            int length = inputStream.read(buffer);
+                            if (length > 0) {
+                                read.write(buffer, 0, length);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead[0] = true;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                });
+                response.setStatus(HttpServletResponse.SC_CREATED);
+            }
+        };
+
+        // Act
+        MockHttpServletResponse response = perform(createRequest("key-1", BODY), nonBlockingEndpoint);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(allDataRead[0]).isTrue();
+    }
+
+    @Test
+    void doFilter_NoKey_PassesThrough() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = createRequest("key-1", BODY);
+        request.removeHeader("Idempotency-Key");
+
+        // Act
+        perform(request);
+        perform(request);
+
+        // Assert
+        assertThat(usersCreated).hasValue(2);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws IOException {
+        return perform(request, createUserEndpoint);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, HttpServlet endpoint) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            idempotencyFilter.doFilter(request, response, new MockFilterChain(endpoint));
+        } catch (ServletException e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest createRequest(String idempotencyKey, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/users");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.addHeader("Idempotency-Key", idempotencyKey);
+        return request;
+    }
+}
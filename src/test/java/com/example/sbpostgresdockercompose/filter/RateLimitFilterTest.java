@@ -0,0 +1,216 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private RateLimitProperties rateLimitProperties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setRate(1);
+        rateLimitProperties.setBurst(3);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void doFilter_ClientOverItsRate_ReturnsTooManyRequests() throws Exception {
+        // Arrange
+        configureClient("client-a");
+        configureClient("client-b");
+        RateLimitFilter rateLimitFilter = newFilter();
+        for (int i = 0; i < 3; i++) {
+            perform(rateLimitFilter, get("/api/v1/users/1", "client-a"));
+        }
+
+        // Act
+        MockHttpServletResponse limited = perform(rateLimitFilter, get("/api/v1/users/1", "client-a"));
+        MockHttpServletResponse other = perform(rateLimitFilter, get("/api/v1/users/1", "client-b"));
+
+        // Assert
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(limited.getContentType()).isEqualTo("application/problem+json");
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("users.requests.rejected").tag("reason", "rate_limit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_UnknownApiKeys_ShareTheBucketOfTheirAddress() throws Exception {
+        // Arrange
+        RateLimitFilter rateLimitFilter = newFilter();
+        for (int i = 0; i < 3; i++) {
+            perform(rateLimitFilter, get("/api/v1/users/1", "made-up-" + i));
+        }
+
+        // Act
+        MockHttpServletResponse limited = perform(rateLimitFilter, get("/api/v1/users/1", "made-up-3"));
+        MockHttpServletResponse keyless = perform(rateLimitFilter, get("/api/v1/users/1", null));
+
+        // Assert
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(keyless.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void doFilter_ConcurrencyLimitReached_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        rateLimitProperties.setBurst(100);
+        rateLimitProperties.getConcurrency().setInitialLimit(1);
+        rateLimitProperties.getConcurrency().setMinLimit(1);
+        RateLimitFilter rateLimitFilter = newFilter();
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        // Act: a second request arrives while the first one holds the only slot
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(get("/api/v1/users/1", "client-a"), first, (request, response) ->
+                nested[0] = perform(rateLimitFilter, get("/api/v1/users/2", "client-b")));
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(nested[0].getStatus()).isEqualTo(503);
+        assertThat(nested[0].getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void doFilter_RefusedForConcurrency_CostsTheClientNothing() throws Exception {
+        // Arrange: two tokens and one slot
+        configureClient("client-a");
+        rateLimitProperties.getClients().get("client-a").setBurst(2);
+        rateLimitProperties.getConcurrency().setInitialLimit(1);
+        rateLimitProperties.getConcurrency().setMinLimit(1);
+        RateLimitFilter rateLimitFilter = newFilter();
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        rateLimitFilter.doFilter(get("/api/v1/users/1", "client-a"), new MockHttpServletResponse(), (request, response) ->
+                nested[0] = perform(rateLimitFilter, get("/api/v1/users/2", "client-a")));
+
+        // Act
+        MockHttpServletResponse next = perform(rateLimitFilter, get("/api/v1/users/3", "client-a"));
+
+        // Assert: the refused request left the second token
+        assertThat(nested[0].getStatus()).isEqualTo(503);
+        assertThat(next.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_AsyncRequest_HoldsItsSlotUntilComplete() throws Exception {
+        // Arrange
+        rateLimitProperties.setBurst(100);
+        RateLimitFilter rateLimitFilter = newFilter();
+        MockHttpServletRequest request = get("/api/v1/users/export", null);
+        request.setAsyncSupported(true);
+        AsyncContext[] asyncContext = new AsyncContext[1];
+
+        // Act
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(),
+                (servletRequest, servletResponse) -> asyncContext[0] = servletRequest.startAsync());
+        double inFlightWhileStreaming = inFlight();
+        asyncContext[0].complete();
+
+        // Assert
+        assertThat(inFlightWhileStreaming).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void doFilter_EventStream_IsNotCounted() throws Exception {
+        // Arrange
+        rateLimitProperties.setBurst(100);
+        rateLimitProperties.getConcurrency().setInitialLimit(1);
+        rateLimitProperties.getConcurrency().setMinLimit(1);
+        RateLimitFilter rateLimitFilter = newFilter();
+        MockHttpServletRequest stream = get("/api/v1/users/changes", null);
+        stream.addHeader("Accept", "text/event-stream");
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        // Act: a request arrives while a stream is open
+        rateLimitFilter.doFilter(stream, new MockHttpServletResponse(), (request, response) ->
+                nested[0] = perform(rateLimitFilter, get("/api/v1/users/1", null)));
+
+        // Assert
+        assertThat(nested[0].getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_OutsideApi_IsNotLimited() throws Exception {
+        // Arrange
+        rateLimitProperties.setBurst(1);
+        RateLimitFilter rateLimitFilter = newFilter();
+
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(rateLimitFilter, get("/actuator/health", null)).getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void cost_WeighsRequestsByTheRowsTheyRead() {
+        // Arrange
+        RateLimitFilter rateLimitFilter = newFilter();
+        MockHttpServletRequest largePage = get("/api/v1/users", null);
+        largePage.addParameter("limit", "1000");
+        MockHttpServletRequest multiGet = get("/api/v1/users", null);
+        multiGet.addParameter("ids", "1,2,3");
+        MockHttpServletRequest create = get("/api/v1/users", null);
+        create.setMethod("POST");
+
+        // Act & Assert
+        assertThat(rateLimitFilter.cost(get("/api/v1/users/1", null))).isEqualTo(1);
+        assertThat(rateLimitFilter.cost(get("/api/v1/users", null))).isEqualTo(2);
+        assertThat(rateLimitFilter.cost(largePage)).isEqualTo(20);
+        assertThat(rateLimitFilter.cost(multiGet)).isEqualTo(2);
+        assertThat(rateLimitFilter.cost(create)).isEqualTo(2);
+        assertThat(rateLimitFilter.cost(get("/api/v1/users/search", null))).isEqualTo(2);
+        assertThat(rateLimitFilter.cost(get("/api/v1/users/export", null))).isEqualTo(100);
+    }
+
+    private void configureClient(String apiKey) {
+        RateLimitProperties.Client client = new RateLimitProperties.Client();
+        client.setRate(rateLimitProperties.getRate());
+        client.setBurst(rateLimitProperties.getBurst());
+        rateLimitProperties.getClients().put(apiKey, client);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("users.concurrency.in.flight").gauge().value();
+    }
+
+    private RateLimitFilter newFilter() {
+        return new RateLimitFilter(rateLimitProperties, new ObjectMapper(), meterRegistry);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter rateLimitFilter, MockHttpServletRequest request)
+            throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            rateLimitFilter.doFilter(request, response, new MockFilterChain());
+        } catch (ServletException e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String path, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+}
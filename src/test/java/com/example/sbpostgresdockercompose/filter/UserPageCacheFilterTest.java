@@ -0,0 +1,174 @@
+package com.example.sbpostgresdockercompose.filter;
+
+import com.example.sbpostgresdockercompose.config.UserPageCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPageCacheFilterTest {
+
+    private static final String PAGE = "{\"content\":[" + "{\"id\":1,\"name\":\"John\"},".repeat(100) + "{}],\"nextCursor\":null}";
+    private static final String ETAG = "\"p1f\"";
+
+    private final AtomicInteger pagesBuilt = new AtomicInteger();
+    private final HttpServlet usersEndpoint = new HttpServlet() {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            pagesBuilt.incrementAndGet();
+            response.setContentType(request.getHeader("Accept"));
+            response.setHeader("ETag", ETAG);
+            response.getOutputStream().write(PAGE.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    private UserPageCacheFilter userPageCacheFilter;
+
+    @BeforeEach
+    void setUp() {
+        UserPageCacheProperties userPageCacheProperties = new UserPageCacheProperties();
+        userPageCacheProperties.setCompressionMinSize(DataSize.ofBytes(100));
+        userPageCacheFilter = new UserPageCacheFilter(userPageCacheProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void doFilter_SamePageTwice_BuildsItOnceAndServesItGzipped() throws Exception {
+        // Act
+        MockHttpServletResponse first = perform(pageRequest("limit=50"));
+        MockHttpServletResponse second = perform(pageRequest("limit=50"));
+
+        // Assert
+        assertThat(pagesBuilt).hasValue(1);
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{first, second}) {
+            assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+            assertThat(response.getContentType()).isEqualTo("application/json");
+            assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(PAGE);
+        }
+    }
+
+    @Test
+    void doFilter_NoGzipAccepted_ServesPlainBody() throws Exception {
+        // Arrange
+        perform(pageRequest("limit=50"));
+        MockHttpServletRequest request = pageRequest("limit=50");
+        request.removeHeader("Accept-Encoding");
+
+        // Act
+        MockHttpServletResponse response = perform(request);
+
+        // Assert
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(PAGE);
+    }
+
+    @Test
+    void doFilter_CachedPageMatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        // Arrange
+        perform(pageRequest("limit=50"));
+        MockHttpServletRequest request = pageRequest("limit=50");
+        request.addHeader("If-None-Match", ETAG);
+
+        // Act
+        MockHttpServletResponse response = perform(request);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(response.getContentLength()).isZero();
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept, Accept-Encoding");
+    }
+
+    @Test
+    void doFilter_SamePageInTwoFormats_VariesByAcceptAndTagsEachFormat() throws Exception {
+        // Arrange
+        MockHttpServletRequest json = pageRequest("limit=50");
+        MockHttpServletRequest smile = pageRequest("limit=50");
+        smile.removeHeader("Accept");
+        smile.addHeader("Accept", "application/x-jackson-smile");
+
+        // Act
+        MockHttpServletResponse jsonPage = perform(json);
+        MockHttpServletResponse smilePage = perform(smile);
+        MockHttpServletRequest smileRevalidation = pageRequest("limit=50");
+        smileRevalidation.removeHeader("Accept");
+        smileRevalidation.addHeader("Accept", "application/x-jackson-smile");
+        smileRevalidation.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse revalidated = perform(smileRevalidation);
+
+        // Assert: built once per format, and the JSON tag does not validate the Smile page
+        assertThat(pagesBuilt).hasValue(2);
+        assertThat(jsonPage.getHeader("Vary")).isEqualTo("Accept, Accept-Encoding");
+        assertThat(smilePage.getHeader("Vary")).isEqualTo("Accept, Accept-Encoding");
+        assertThat(jsonPage.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(smilePage.getHeader("ETag")).isEqualTo("\"p1f-x-jackson-smile\"");
+        assertThat(revalidated.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(revalidated.getContentType()).isEqualTo("application/x-jackson-smile");
+    }
+
+    @Test
+    void variantETag_SuffixesNonJsonFormats() {
+        // Act & Assert
+        assertThat(UserPageCacheFilter.variantETag("\"p1f\"", "application/json")).isEqualTo("\"p1f\"");
+        assertThat(UserPageCacheFilter.variantETag("\"p1f\"", "application/cbor")).isEqualTo("\"p1f-cbor\"");
+        assertThat(UserPageCacheFilter.variantETag("W/\"p1f\"", "application/cbor")).isEqualTo("W/\"p1f-cbor\"");
+        assertThat(UserPageCacheFilter.variantETag(null, "application/cbor")).isNull();
+    }
+
+    @Test
+    void doFilter_OtherParameters_AreNotCached() throws Exception {
+        // Act
+        perform(pageRequest("ids=1,2"));
+        MockHttpServletResponse response = perform(pageRequest("ids=1,2"));
+
+        // Assert
+        assertThat(pagesBuilt).hasValue(2);
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+    }
+
+    @Test
+    void acceptsGzip_HonoursQualityZero() {
+        // Act & Assert
+        assertThat(UserPageCacheFilter.acceptsGzip("br, gzip;q=0.5")).isTrue();
+        assertThat(UserPageCacheFilter.acceptsGzip("*")).isTrue();
+        assertThat(UserPageCacheFilter.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(UserPageCacheFilter.acceptsGzip("identity")).isFalse();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        userPageCacheFilter.doFilter(request, response, new MockFilterChain(usersEndpoint));
+        return response;
+    }
+
+    private static MockHttpServletRequest pageRequest(String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users");
+        request.setQueryString(query);
+        for (String parameter : query.split("&")) {
+            String[] nameAndValue = parameter.split("=", 2);
+            request.addParameter(nameAndValue[0], nameAndValue[1]);
+        }
+        request.addHeader("Accept", "application/json");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        return request;
+    }
+
+    private static String gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
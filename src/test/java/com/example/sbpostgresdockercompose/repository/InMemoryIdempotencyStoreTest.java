@@ -0,0 +1,122 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.config.IdempotencyProperties;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore.IdempotencyRecord;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryIdempotencyStoreTest {
+
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+    private static final UUID FIRST = UUID.randomUUID();
+    private static final UUID SECOND = UUID.randomUUID();
+    private static final StoredResponse CREATED = new StoredResponse(201, "application/json", "/api/v1/users/1", null,
+            new byte[]{'{', '}'});
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final InMemoryIdempotencyStore idempotencyStore = new InMemoryIdempotencyStore(new IdempotencyProperties(), clock);
+
+    @Test
+    void claim_CompletedKey_ReturnsStoredResponse() {
+        // Arrange
+        idempotencyStore.claim("key", FIRST, FINGERPRINT);
+        idempotencyStore.complete("key", FIRST, CREATED);
+
+        // Act
+        IdempotencyRecord record = idempotencyStore.claim("key", FIRST, FINGERPRINT);
+
+        // Assert
+        assertThat(record.response()).isEqualTo(CREATED);
+    }
+
+    @Test
+    void claim_ReleasedKey_CanBeClaimedAgain() {
+        // Arrange
+        idempotencyStore.claim("key", FIRST, FINGERPRINT);
+        idempotencyStore.release("key", FIRST);
+
+        // Act & Assert
+        assertThat(idempotencyStore.claim("key", FIRST, FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void claim_RunningPastLockTimeout_IsTakenOver() {
+        // Arrange
+        idempotencyStore.claim("key", FIRST, FINGERPRINT);
+        assertThat(idempotencyStore.claim("key", FIRST, FINGERPRINT)).isNotNull();
+
+        // Act
+        clock.advance(new IdempotencyProperties().getLockTimeout().plusSeconds(1));
+        IdempotencyRecord record = idempotencyStore.claim("key", SECOND, FINGERPRINT);
+
+        // Assert
+        assertThat(record).isNull();
+    }
+
+    @Test
+    void complete_AfterTakeover_LeavesTheNewClaim() {
+        // Arrange
+        idempotencyStore.claim("key", FIRST, FINGERPRINT);
+        clock.advance(new IdempotencyProperties().getLockTimeout().plusSeconds(1));
+        idempotencyStore.claim("key", SECOND, FINGERPRINT);
+
+        // Act: the abandoned request finishes late
+        idempotencyStore.complete("key", FIRST, CREATED);
+
+        // Assert: still running under the new claim, not replaying the old response
+        IdempotencyRecord record = idempotencyStore.claim("key", UUID.randomUUID(), FINGERPRINT);
+        assertThat(record.claimToken()).isEqualTo(SECOND);
+        assertThat(record.response()).isNull();
+    }
+
+    @Test
+    void release_AfterTakeover_KeepsTheNewClaim() {
+        // Arrange
+        idempotencyStore.claim("key", FIRST, FINGERPRINT);
+        clock.advance(new IdempotencyProperties().getLockTimeout().plusSeconds(1));
+        idempotencyStore.claim("key", SECOND, FINGERPRINT);
+
+        // Act
+        idempotencyStore.release("key", FIRST);
+
+        // Assert
+        assertThat(idempotencyStore.claim("key", UUID.randomUUID(), FINGERPRINT).claimToken()).isEqualTo(SECOND);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
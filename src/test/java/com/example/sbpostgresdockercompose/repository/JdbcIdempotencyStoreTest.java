@@ -0,0 +1,95 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.config.IdempotencyProperties;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore.IdempotencyRecord;
+import com.example.sbpostgresdockercompose.repository.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("postgres")    // using  resources/application-postgres.yml and testcontainers
+class JdbcIdempotencyStoreTest {
+
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+    private static final UUID FIRST = UUID.randomUUID();
+    private static final UUID SECOND = UUID.randomUUID();
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcIdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new JdbcIdempotencyStore(dataSource, new IdempotencyProperties());
+    }
+
+    @Test
+    void claim_NewKey_IsClaimedOnce() {
+        // Act
+        IdempotencyRecord first = idempotencyStore.claim("POST /api/v1/users a", FIRST, FINGERPRINT);
+        IdempotencyRecord second = idempotencyStore.claim("POST /api/v1/users a", SECOND, FINGERPRINT);
+
+        // Assert
+        assertThat(first).isNull();
+        assertThat(second.fingerprint()).isEqualTo(FINGERPRINT);
+        assertThat(second.response()).isNull();
+    }
+
+    @Test
+    void claim_CompletedKey_ReturnsStoredResponse() {
+        // Arrange
+        StoredResponse created = new StoredResponse(201, "application/json", "/api/v1/users/1", "\"0\"",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        idempotencyStore.claim("POST /api/v1/users b", FIRST, FINGERPRINT);
+        idempotencyStore.complete("POST /api/v1/users b", FIRST, created);
+
+        // Act
+        IdempotencyRecord record = idempotencyStore.claim("POST /api/v1/users b", SECOND, FINGERPRINT);
+
+        // Assert
+        assertThat(record.response().status()).isEqualTo(201);
+        assertThat(record.response().location()).isEqualTo("/api/v1/users/1");
+        assertThat(record.response().eTag()).isEqualTo("\"0\"");
+        assertThat(record.response().body()).isEqualTo(created.body());
+    }
+
+    @Test
+    void claim_ReleasedKey_CanBeClaimedAgain() {
+        // Arrange
+        idempotencyStore.claim("POST /api/v1/users c", FIRST, FINGERPRINT);
+        idempotencyStore.release("POST /api/v1/users c", FIRST);
+
+        // Act & Assert
+        assertThat(idempotencyStore.claim("POST /api/v1/users c", SECOND, FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void complete_AfterTakeover_LeavesTheNewClaim() {
+        // Arrange: the first claim has run past the lock timeout, so the second one takes it over
+        idempotencyStore.claim("POST /api/v1/users d", FIRST, FINGERPRINT);
+        new JdbcTemplate(dataSource).update(
+                "update idempotency_keys set created_at = created_at - interval '2 minutes' where key = ?",
+                "POST /api/v1/users d");
+        assertThat(idempotencyStore.claim("POST /api/v1/users d", SECOND, FINGERPRINT)).isNull();
+
+        // Act: the abandoned request finishes late
+        idempotencyStore.complete("POST /api/v1/users d", FIRST, new StoredResponse(201, null, null, null, new byte[0]));
+        idempotencyStore.release("POST /api/v1/users d", FIRST);
+
+        // Assert: the new claim is untouched
+        IdempotencyRecord record = idempotencyStore.claim("POST /api/v1/users d", UUID.randomUUID(), FINGERPRINT);
+        assertThat(record.claimToken()).isEqualTo(SECOND);
+        assertThat(record.response()).isNull();
+    }
+}
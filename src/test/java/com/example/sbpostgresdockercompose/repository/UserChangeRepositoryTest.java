@@ -0,0 +1,101 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("postgres")    // using  resources/application-postgres.yml and testcontainers
+@Import({UserChangeRepository.class, UserChangeProperties.class})
+class UserChangeRepositoryTest {
+
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void triggers_recordEveryChangeWithItsVersion() {
+        // Arrange
+        User user = new User();
+        user.setName("John");
+        user.setEmail("john@example.com");
+        testEntityManager.persistAndFlush(user);
+
+        // Act
+        user.setName("Johnny");
+        testEntityManager.flush();
+        testEntityManager.remove(user);
+        testEntityManager.flush();
+
+        // Assert
+        List<String> changes = new JdbcTemplate(dataSource).queryForList(
+                "select operation || ':' || version from user_changes where user_id = ? order by id",
+                String.class, user.getId());
+        assertThat(changes).containsExactly("CREATED:0", "UPDATED:1", "DELETED:1");
+    }
+
+    @Test
+    void findChangesAfter_skipsChangesOfRunningTransactions() {
+        // Arrange: the test transaction stays open, so its change is not readable yet
+        User user = new User();
+        user.setName("John");
+        user.setEmail("john@example.com");
+        testEntityManager.persistAndFlush(user);
+
+        // Act
+        List<UserChange> changes = userChangeRepository.findChangesAfter(UserChangeCursor.START, 1000);
+
+        // Assert
+        assertThat(changes).extracting(UserChange::getUserId).doesNotContain(user.getId());
+    }
+
+    @Test
+    void deleteChangesBefore_expiresCursorsBeforeTheNewestDeletedChange() {
+        // Arrange
+        User user = new User();
+        user.setName("John");
+        user.setEmail("john@example.com");
+        testEntityManager.persistAndFlush(user);
+        UserChangeCursor deletedChange = new JdbcTemplate(dataSource).queryForObject(
+                "select tx_id::text::bigint, id from user_changes where user_id = ?",
+                (resultSet, rowNum) -> new UserChangeCursor(resultSet.getLong(1), resultSet.getLong(2)), user.getId());
+
+        // Act
+        int deleted = userChangeRepository.deleteChangesBefore(Instant.now().plusSeconds(60));
+
+        // Assert
+        assertThat(deleted).isPositive();
+        assertThat(userChangeRepository.isExpired(UserChangeCursor.START)).isTrue();
+        assertThat(userChangeRepository.isExpired(deletedChange)).isFalse();
+        assertThat(userChangeRepository.isExpired(new UserChangeCursor(deletedChange.txId(), deletedChange.id() + 1)))
+                .isFalse();
+    }
+
+    @Test
+    void parse_roundTripsCursor() {
+        // Act
+        UserChangeCursor cursor = UserChangeCursor.parse("7421-1089");
+
+        // Assert
+        assertThat(cursor).isEqualTo(new UserChangeCursor(7421, 1089));
+        assertThat(cursor.toString()).isEqualTo("7421-1089");
+    }
+}
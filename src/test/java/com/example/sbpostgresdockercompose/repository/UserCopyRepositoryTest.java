@@ -0,0 +1,100 @@
+package com.example.sbpostgresdockercompose.repository;
+
+import com.example.sbpostgresdockercompose.dto.UserImportResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("postgres")    // using  resources/application-postgres.yml and testcontainers
+@Import(UserCopyRepository.class)
+class UserCopyRepositoryTest {
+
+    @Autowired
+    private UserCopyRepository userCopyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void importUsers_csv_skipsDuplicatesAndInvalidRows() {
+        // Arrange
+        User existing = new User();
+        existing.setName("John");
+        existing.setEmail("john@example.com");
+        testEntityManager.persistAndFlush(existing);
+
+        String csv = """
+                name,email
+                Jane,jane@example.com
+                Jane Again,jane@example.com
+                John,john@example.com
+                ,blank@example.com
+                Bob,not-an-email
+                """;
+
+        // Act
+        UserImportResponse response = userCopyRepository.importUsers(CopyFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertThat(response).isEqualTo(new UserImportResponse(5, 1, 2, 2));
+        assertThat(userRepository.findByEmail("jane@example.com")).isPresent();
+    }
+
+    @Test
+    void importUsers_csvWithMalformedRow_throwsBadRequestExceptionNamingTheLine() {
+        // Arrange
+        String csv = """
+                name,email
+                Jane,jane@example.com
+                Bob,bob@example.com,extra
+                """;
+
+        // Act & Assert
+        assertThatThrownBy(() -> userCopyRepository.importUsers(CopyFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("extra data after last expected column")
+                .hasMessageContaining("line 3");
+    }
+
+    @Test
+    void exportUsers_csv_writesHeaderAndRowsOrderedById() {
+        // Arrange
+        User john = new User();
+        john.setName("John");
+        john.setEmail("john@example.com");
+        User jane = new User();
+        jane.setName("Jane");
+        jane.setEmail("jane@example.com");
+        testEntityManager.persist(john);
+        testEntityManager.persistAndFlush(jane);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        long rows = userCopyRepository.exportUsers(CopyFormat.CSV, outputStream);
+
+        // Assert
+        assertThat(rows).isEqualTo(2);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,name,email,version\n"
+                        + john.getId() + ",John,john@example.com,0\n"
+                        + jane.getId() + ",Jane,jane@example.com,0\n");
+    }
+}
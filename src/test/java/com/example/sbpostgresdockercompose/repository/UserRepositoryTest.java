@@ -1,12 +1,17 @@
 package com.example.sbpostgresdockercompose.repository;
 
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
 import com.example.sbpostgresdockercompose.entity.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -17,6 +22,9 @@ class UserRepositoryTest {
     @Autowired
     public UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     @Test
     void findById_dataExist() {
         // Arrange
@@ -78,4 +86,208 @@ class UserRepositoryTest {
         assertThat(updatedUser.getName()).isEqualTo("Updated Name");
         assertThat(updatedUser.getEmail()).isEqualTo("john@example.com");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findDtoById_returnsProjectedRow() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+
+        // Act
+        Optional<UserDtoResponse> userResult = userRepository.findDtoById(user.getId());
+
+        // Assert
+        assertThat(userResult).contains(new UserDtoResponse(user.getId(), "John", "john@example.com", 0L));
+        assertThat(userRepository.findDtoById(user.getId() + 1)).isEmpty();
+    }
+
+    @Test
+    void findDtosByIds_returnsExistingUsersOnly() {
+        // Arrange
+        User first = saveUser("First", "first@example.com");
+        User second = saveUser("Second", "second@example.com");
+        saveUser("Third", "third@example.com");
+        testEntityManager.flush();
+
+        // Act
+        List<UserDtoResponse> users = userRepository.findDtosByIds(List.of(second.getId(), first.getId(), -1L));
+
+        // Assert
+        assertThat(users).extracting(UserDtoResponse::getId).containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(userRepository.findDtosByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    void findDtoPageAfter_returnsNextPageInIdOrder() {
+        // Arrange
+        User first = saveUser("First", "first@example.com");
+        User second = saveUser("Second", "second@example.com");
+        User third = saveUser("Third", "third@example.com");
+
+        // Act
+        List<UserDtoResponse> page = userRepository.findDtoPageAfter(first.getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertThat(page).extracting(UserDtoResponse::getId).containsExactly(second.getId(), third.getId());
+    }
+
+    @Test
+    void digestPageAfter_changesOnlyWithTheRowsOfThePage() {
+        // Arrange
+        User first = saveUser("First", "first@example.com");
+        User second = saveUser("Second", "second@example.com");
+        User third = saveUser("Third", "third@example.com");
+        testEntityManager.flush();
+        long digest = userRepository.digestPageAfter(0L, 2);
+
+        // Act
+        long unchanged = userRepository.digestPageAfter(0L, 2);
+        third.setName("Updated Third");
+        testEntityManager.flush();
+        long outsidePageChanged = userRepository.digestPageAfter(0L, 2);
+        second.setName("Updated Second");
+        testEntityManager.flush();
+        long pageChanged = userRepository.digestPageAfter(0L, 2);
+
+        // Assert
+        assertThat(unchanged).isEqualTo(digest);
+        assertThat(outsidePageChanged).isEqualTo(digest);
+        assertThat(pageChanged).isNotEqualTo(digest);
+        assertThat(userRepository.digestPageAfter(first.getId(), 2)).isNotEqualTo(pageChanged);
+    }
+
+    @Test
+    void streamAllAsDto_returnsAllUsersInIdOrder() {
+        // Arrange
+        User first = saveUser("First", "first@example.com");
+        User second = saveUser("Second", "second@example.com");
+
+        // Act
+        List<UserDtoResponse> users;
+        try (Stream<UserDtoResponse> stream = userRepository.streamAllAsDto()) {
+            users = stream.toList();
+        }
+
+        // Assert
+        assertThat(users).extracting(UserDtoResponse::getId).containsExactly(first.getId(), second.getId());
+        assertThat(users.get(0).getEmail()).isEqualTo("first@example.com");
+    }
+
+    @Test
+    void updateNameAndEmailReturning_existingUser_returnsUpdatedRow() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Act
+        Optional<User> updatedUser = userRepository.updateNameAndEmailReturning(user.getId(), "Updated Name", "updated@example.com");
+
+        // Assert
+        assertThat(updatedUser).isPresent();
+        assertThat(updatedUser.get().getName()).isEqualTo("Updated Name");
+        assertThat(updatedUser.get().getEmail()).isEqualTo("updated@example.com");
+        assertThat(updatedUser.get().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateNameAndEmailIfVersionReturning_onlyUpdatesAtExpectedVersion() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Act
+        Optional<User> updatedUser = userRepository.updateNameAndEmailIfVersionReturning(user.getId(), "First", "first@example.com", 0L);
+        testEntityManager.clear();
+        Optional<User> staleUpdate = userRepository.updateNameAndEmailIfVersionReturning(user.getId(), "Second", "second@example.com", 0L);
+
+        // Assert
+        assertThat(updatedUser).isPresent();
+        assertThat(updatedUser.get().getVersion()).isEqualTo(1L);
+        assertThat(staleUpdate).isEmpty();
+    }
+
+    @Test
+    void updateNameAndEmailReturning_nonExistingUser_returnsEmpty() {
+        // Act
+        Optional<User> updatedUser = userRepository.updateNameAndEmailReturning(-1L, "Name", "email@example.com");
+
+        // Assert
+        assertThat(updatedUser).isEmpty();
+    }
+
+    @Test
+    void deleteUserById_returnsAffectedRowCount() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Act & Assert
+        assertThat(userRepository.deleteUserById(user.getId())).isEqualTo(1);
+        assertThat(userRepository.deleteUserById(user.getId())).isZero();
+    }
+
+    @Test
+    void deleteUserByIdAndVersion_onlyDeletesAtExpectedVersion() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Act & Assert
+        assertThat(userRepository.deleteUserByIdAndVersion(user.getId(), 1L)).isZero();
+        assertThat(userRepository.deleteUserByIdAndVersion(user.getId(), 0L)).isEqualTo(1);
+    }
+
+    @Test
+    void findByEmail_returnsUserWithThatEmail() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+        saveUser("Jane", "jane@example.com");
+
+        // Act
+        Optional<User> userResult = userRepository.findByEmail("john@example.com");
+
+        // Assert
+        assertThat(userResult).map(User::getId).contains(user.getId());
+    }
+
+    @Test
+    void findDtoByEmail_returnsUserWithThatEmail() {
+        // Arrange
+        User user = saveUser("John", "john@example.com");
+
+        // Act & Assert
+        assertThat(userRepository.findDtoByEmail("john@example.com")).map(UserDtoResponse::getId).contains(user.getId());
+        assertThat(userRepository.findDtoByEmailAndNamePrefix("john@example.com", "Jo")).map(UserDtoResponse::getId).contains(user.getId());
+        assertThat(userRepository.findDtoByEmailAndNamePrefix("john@example.com", "Ja")).isEmpty();
+    }
+
+    @Test
+    void findDtoByNamePrefix_matchesPrefixOnlyAndEscapesWildcards() {
+        // Arrange
+        User john = saveUser("John", "john@example.com");
+        User johanna = saveUser("Johanna", "johanna@example.com");
+        saveUser("Bojo", "bojo@example.com");
+        saveUser("Jo%ker", "joker@example.com");
+        saveUser("Jo_e", "joe@example.com");
+
+        // Act
+        List<UserDtoResponse> users = userRepository.findDtoByNamePrefix("Joh", PageRequest.of(0, 10));
+        List<UserDtoResponse> escaped = userRepository.findDtoByNamePrefix("Jo%", PageRequest.of(0, 10));
+        List<UserDtoResponse> underscore = userRepository.findDtoByNamePrefix("Jo_", PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(users).extracting(UserDtoResponse::getId).containsExactly(john.getId(), johanna.getId());
+        assertThat(escaped).extracting(UserDtoResponse::getName).containsExactly("Jo%ker");
+        assertThat(underscore).extracting(UserDtoResponse::getName).containsExactly("Jo_e");
+    }
+
+    private User saveUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return userRepository.save(user);
+    }
+}
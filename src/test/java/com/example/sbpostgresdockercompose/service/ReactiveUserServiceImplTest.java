@@ -0,0 +1,175 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.CacheConfig;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.exception.EntityNotFoundException;
+import com.example.sbpostgresdockercompose.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceImplTest {
+
+    @Mock
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private ReactiveUserServiceImpl reactiveUserServiceUnderTest;
+
+    @Test
+    void getUserById_ExistingUser_EmitsUser() {
+        // Arrange
+        UserDtoResponse user = new UserDtoResponse(1L, "John", "john@example.com", 0L);
+        when(reactiveUserRepository.findById(1L)).thenReturn(Mono.just(user));
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.getUserById(1L))
+                .expectNext(user)
+                .verifyComplete();
+    }
+
+    @Test
+    void getUserById_NonExistingUser_EmitsEntityNotFoundException() {
+        // Arrange
+        when(reactiveUserRepository.findById(999L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.getUserById(999L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getAllUsers_MoreRowsThanLimit_EmitsPageWithNextCursor() {
+        // Arrange
+        UserDtoResponse user1 = new UserDtoResponse(11L, "A", "a@example.com", 0L);
+        UserDtoResponse user2 = new UserDtoResponse(12L, "B", "b@example.com", 0L);
+        UserDtoResponse user3 = new UserDtoResponse(13L, "C", "c@example.com", 0L);
+        when(reactiveUserRepository.findPage(10L, 3)).thenReturn(Flux.just(user1, user2, user3));
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.getAllUsers(10L, 2))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).containsExactly(user1, user2);
+                    assertThat(page.getNextCursor()).isEqualTo(12L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllUsers_LastPage_EmitsPageWithoutNextCursor() {
+        // Arrange
+        UserDtoResponse user = new UserDtoResponse(1L, "A", "a@example.com", 0L);
+        when(reactiveUserRepository.findPage(0L, 51)).thenReturn(Flux.just(user));
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.getAllUsers(null, 50))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).containsExactly(user);
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void streamAllUsers_EmitsEveryUser() {
+        // Arrange
+        UserDtoResponse user1 = new UserDtoResponse(1L, "A", "a@example.com", 0L);
+        UserDtoResponse user2 = new UserDtoResponse(2L, "B", "b@example.com", 0L);
+        when(reactiveUserRepository.findAll()).thenReturn(Flux.just(user1, user2));
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.streamAllUsers(), 1)
+                .expectNext(user1)
+                .thenRequest(1)
+                .expectNext(user2)
+                .verifyComplete();
+    }
+
+    @Test
+    void createUser_EmitsSavedUser() {
+        // Arrange
+        UserDtoResponse savedUser = new UserDtoResponse(1L, "John", "john@example.com", 0L);
+        when(reactiveUserRepository.insert("John", "john@example.com")).thenReturn(Mono.just(savedUser));
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.createUser(new UserDtoRequest("John", "john@example.com")))
+                .expectNext(savedUser)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateUser_ExistingUser_EmitsUpdatedUserAndEvictsCache() {
+        // Arrange
+        UserDtoResponse updatedUser = new UserDtoResponse(1L, "John Doe", "john.doe@example.com", 0L);
+        when(reactiveUserRepository.update(1L, "John Doe", "john.doe@example.com")).thenReturn(Mono.just(updatedUser));
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(cache);
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.updateUser(1L, new UserDtoRequest("John Doe", "john.doe@example.com")))
+                .expectNext(updatedUser)
+                .verifyComplete();
+
+        verify(cache).evict(1L);
+    }
+
+    @Test
+    void updateUser_NonExistingUser_EmitsEntityNotFoundException() {
+        // Arrange
+        when(reactiveUserRepository.update(999L, "John Doe", "john.doe@example.com")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.updateUser(999L, new UserDtoRequest("John Doe", "john.doe@example.com")))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void deleteUser_ExistingUser_CompletesAndEvictsCache() {
+        // Arrange
+        when(reactiveUserRepository.deleteById(1L)).thenReturn(Mono.just(1L));
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(cache);
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.deleteUser(1L))
+                .verifyComplete();
+
+        verify(cache).evict(1L);
+    }
+
+    @Test
+    void deleteUser_NonExistingUser_EmitsEntityNotFoundException() {
+        // Arrange
+        when(reactiveUserRepository.deleteById(999L)).thenReturn(Mono.just(0L));
+
+        // Act & Assert
+        StepVerifier.create(reactiveUserServiceUnderTest.deleteUser(999L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+
+        verify(cacheManager, never()).getCache(CacheConfig.USERS_CACHE);
+    }
+}
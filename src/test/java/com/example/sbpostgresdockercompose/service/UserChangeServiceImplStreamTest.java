@@ -0,0 +1,165 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.repository.UserChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The stream loop (replay, LISTEN wake-ups, heartbeats) against a real Postgres. The feed only
+ * reads committed changes, so the test runs without a transaction and removes its users itself.
+ */
+@DataJpaTest
+@ActiveProfiles("postgres")    // using  resources/application-postgres.yml and testcontainers
+@Import({UserChangeRepository.class, UserChangeProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserChangeServiceImplStreamTest {
+
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserChangeServiceImpl userChangeService;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        UserChangeProperties userChangeProperties = new UserChangeProperties();
+        // frequent heartbeats, so the stream also re-reads between notifications
+        userChangeProperties.setHeartbeat(Duration.ofMillis(100));
+        userChangeService = new UserChangeServiceImpl(userChangeRepository, dataSourceProperties,
+                new ConcurrentMapCacheManager(), userChangeProperties, new SimpleMeterRegistry());
+        userChangeService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userChangeService.stop();
+        userIds.forEach(id -> jdbcTemplate.update("delete from users where id = ?", id));
+    }
+
+    @Test
+    void stream_ReplaysAndFollowsCommittedChangesExactlyOnce() throws Exception {
+        // Arrange: one change committed before the stream opens, after the cursor
+        String since = userChangeRepository.findHead().toString();
+        long john = insertUser("John", "john.stream@example.com");
+        RecordingSink sink = new RecordingSink();
+
+        // Act: replay, then one change committed while the stream is live
+        userChangeService.stream(since, sink);
+        sink.awaitChange(change -> change.getUserId() == john && change.getOperation() == UserChange.Operation.CREATED);
+        jdbcTemplate.update("update users set name = 'Johnny', version = version + 1 where id = ?", john);
+        sink.awaitChange(change -> change.getUserId() == john && change.getOperation() == UserChange.Operation.UPDATED);
+        // the feed is ordered: once a later change arrives, any duplicate of John's would have too
+        long fence = insertUser("Fence", "fence.stream@example.com");
+        sink.awaitChange(change -> change.getUserId() == fence);
+
+        // Assert
+        assertThat(sink.changes())
+                .filteredOn(change -> change.getUserId() == john)
+                .extracting(change -> change.getOperation() + ":" + change.getVersion())
+                .containsExactly("CREATED:0", "UPDATED:1");
+        assertThat(sink.changes())
+                .extracting(UserChange::getCursor)
+                .doesNotHaveDuplicates()
+                .allMatch(cursor -> compare(cursor, since) > 0);
+    }
+
+    @Test
+    void stream_StopsWithTheService() throws Exception {
+        // Arrange
+        RecordingSink sink = new RecordingSink();
+        userChangeService.stream(null, sink);
+
+        // Act
+        userChangeService.stop();
+
+        // Assert
+        sink.awaitCompletion();
+    }
+
+    private long insertUser(String name, String email) {
+        Long id = jdbcTemplate.queryForObject(
+                "insert into users (id, name, email) values (nextval('user_seq'), ?, ?) returning id",
+                Long.class, name, email);
+        userIds.add(id);
+        return id;
+    }
+
+    private static int compare(String cursor, String other) {
+        String[] a = cursor.split("-");
+        String[] b = other.split("-");
+        int byTransaction = Long.compare(Long.parseLong(a[0]), Long.parseLong(b[0]));
+        return byTransaction != 0 ? byTransaction : Long.compare(Long.parseLong(a[1]), Long.parseLong(b[1]));
+    }
+
+    private static final class RecordingSink implements UserChangeSink {
+
+        private final List<UserChange> received = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public synchronized void send(List<UserChange> changes) {
+            received.addAll(changes);
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            notifyAll();
+        }
+
+        synchronized List<UserChange> changes() {
+            return List.copyOf(received);
+        }
+
+        synchronized void awaitChange(Predicate<UserChange> expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TIMEOUT_NANOS;
+            while (received.stream().noneMatch(expected)) {
+                long remaining = deadline - System.nanoTime();
+                assertThat(remaining).as("change received within the timeout").isPositive();
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+
+        synchronized void awaitCompletion() throws InterruptedException {
+            long deadline = System.nanoTime() + TIMEOUT_NANOS;
+            while (!completed) {
+                long remaining = deadline - System.nanoTime();
+                assertThat(remaining).as("stream completed within the timeout").isPositive();
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+}
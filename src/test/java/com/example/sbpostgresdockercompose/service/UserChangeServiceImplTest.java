@@ -0,0 +1,117 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserChangeProperties;
+import com.example.sbpostgresdockercompose.dto.UserChange;
+import com.example.sbpostgresdockercompose.dto.UserChangePage;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
+import com.example.sbpostgresdockercompose.exception.ChangeCursorExpiredException;
+import com.example.sbpostgresdockercompose.repository.UserChangeCursor;
+import com.example.sbpostgresdockercompose.repository.UserChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.CacheManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeServiceImplTest {
+
+    private static final UserChange CHANGE_1 = new UserChange("7-1", 1L, UserChange.Operation.CREATED, 0L,
+            Instant.parse("2024-01-01T00:00:00Z"));
+    private static final UserChange CHANGE_2 = new UserChange("9-2", 1L, UserChange.Operation.UPDATED, 1L,
+            Instant.parse("2024-01-01T00:00:01Z"));
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private UserChangeServiceImpl userChangeService;
+
+    @BeforeEach
+    void setUp() {
+        userChangeService = new UserChangeServiceImpl(userChangeRepository, new DataSourceProperties(), cacheManager,
+                new UserChangeProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void getChanges_NoCursor_ReturnsEndOfFeed() {
+        // Arrange
+        when(userChangeRepository.findHead()).thenReturn(new UserChangeCursor(9, 2));
+
+        // Act
+        UserChangePage page = userChangeService.getChanges(null, 100);
+
+        // Assert
+        assertThat(page).isEqualTo(new UserChangePage(List.of(), "9-2"));
+    }
+
+    @Test
+    void getChanges_ReturnsChangesAfterCursor() {
+        // Arrange
+        when(userChangeRepository.findChangesAfter(new UserChangeCursor(5, 10), 100))
+                .thenReturn(List.of(CHANGE_1, CHANGE_2));
+
+        // Act
+        UserChangePage page = userChangeService.getChanges("5-10", 100);
+
+        // Assert
+        assertThat(page).isEqualTo(new UserChangePage(List.of(CHANGE_1, CHANGE_2), "9-2"));
+    }
+
+    @Test
+    void getChanges_NothingNew_KeepsCursor() {
+        // Arrange
+        when(userChangeRepository.findChangesAfter(new UserChangeCursor(9, 2), 1000)).thenReturn(List.of());
+
+        // Act
+        UserChangePage page = userChangeService.getChanges("9-2", 5000);
+
+        // Assert
+        assertThat(page).isEqualTo(new UserChangePage(List.of(), "9-2"));
+    }
+
+    @Test
+    void getChanges_CursorBeforeDeletedChanges_ThrowsChangeCursorExpiredException() {
+        // Arrange
+        when(userChangeRepository.findChangesAfter(new UserChangeCursor(5, 10), 100)).thenReturn(List.of(CHANGE_2));
+        when(userChangeRepository.isExpired(new UserChangeCursor(5, 10))).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ChangeCursorExpiredException.class, () -> userChangeService.getChanges("5-10", 100));
+    }
+
+    @Test
+    void getChanges_InvalidCursor_ThrowsBadRequestException() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> userChangeService.getChanges("latest", 100));
+        verifyNoInteractions(userChangeRepository);
+    }
+
+    @Test
+    void stream_NotRunning_CompletesSink() {
+        // Arrange
+        UserChangeSink sink = mock(UserChangeSink.class);
+
+        // Act
+        userChangeService.stream("9-2", sink);
+
+        // Assert
+        verify(sink).complete();
+        verifyNoInteractions(userChangeRepository);
+    }
+}
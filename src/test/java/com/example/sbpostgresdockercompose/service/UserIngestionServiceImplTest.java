@@ -0,0 +1,159 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserIngestionProperties;
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserIngestionStatus;
+import com.example.sbpostgresdockercompose.exception.IngestionQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserIngestionServiceImplTest {
+
+    @Mock
+    private UserService userService;
+
+    private UserIngestionProperties userIngestionProperties;
+
+    @BeforeEach
+    void setUp() {
+        userIngestionProperties = new UserIngestionProperties();
+        userIngestionProperties.setEnabled(true);
+    }
+
+    @Test
+    void submit_ThenStop_WritesQueuedUsersInOneGroup() {
+        // Arrange
+        UserIngestionServiceImpl ingestionServiceUnderTest = newIngestionService();
+        UserDtoRequest john = new UserDtoRequest("John", "john@example.com");
+        UserDtoRequest jane = new UserDtoRequest("Jane", "jane@example.com");
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            List<UserDtoRequest> requests = invocation.getArgument(0);
+            return requests.stream()
+                    .map(request -> new UserBatchItemResponse(requests.indexOf(request), 10L + requests.indexOf(request), 201, null))
+                    .toList();
+        });
+        ingestionServiceUnderTest.start();
+
+        // Act
+        UserIngestionStatus submitted = ingestionServiceUnderTest.submit(john);
+        ingestionServiceUnderTest.submit(jane);
+        ingestionServiceUnderTest.stop();
+
+        // Assert
+        assertThat(submitted.getState()).isEqualTo(UserIngestionStatus.State.PENDING);
+        UserIngestionStatus status = ingestionServiceUnderTest.getStatus(submitted.getTrackingId()).orElseThrow();
+        assertThat(status.getState()).isEqualTo(UserIngestionStatus.State.CREATED);
+        assertThat(status.getUserId()).isNotNull();
+    }
+
+    @Test
+    void submit_QueueFull_ThrowsIngestionQueueFullException() throws InterruptedException {
+        // Arrange
+        userIngestionProperties.setQueueCapacity(1);
+        UserIngestionServiceImpl ingestionServiceUnderTest = newIngestionService();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            List<UserDtoRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> new UserBatchItemResponse(0, 1L, 201, null)).toList();
+        });
+        ingestionServiceUnderTest.start();
+
+        // the writer holds the first user, the second fills the queue
+        ingestionServiceUnderTest.submit(new UserDtoRequest("First", "first@example.com"));
+        writing.await();
+        ingestionServiceUnderTest.submit(new UserDtoRequest("Second", "second@example.com"));
+
+        // Act & Assert
+        assertThrows(IngestionQueueFullException.class,
+                () -> ingestionServiceUnderTest.submit(new UserDtoRequest("Third", "third@example.com")));
+
+        release.countDown();
+        ingestionServiceUnderTest.stop();
+    }
+
+    @Test
+    void write_GroupFails_RetriesUsersOneByOne() {
+        // Arrange
+        UserIngestionServiceImpl ingestionServiceUnderTest = newIngestionService();
+        UserDtoRequest duplicate = new UserDtoRequest("John", "taken@example.com");
+        UserDtoRequest valid = new UserDtoRequest("Jane", "jane@example.com");
+        when(userService.createUsers(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userService.createUser(duplicate)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userService.createUser(valid)).thenReturn(new UserDtoResponse(7L, "Jane", "jane@example.com", 0L));
+
+        // Act
+        ingestionServiceUnderTest.start();
+        UserIngestionStatus duplicateStatus = ingestionServiceUnderTest.submit(duplicate);
+        UserIngestionStatus validStatus = ingestionServiceUnderTest.submit(valid);
+        ingestionServiceUnderTest.stop();
+
+        // Assert
+        assertThat(ingestionServiceUnderTest.getStatus(duplicateStatus.getTrackingId()).orElseThrow().getState())
+                .isEqualTo(UserIngestionStatus.State.FAILED);
+        assertThat(ingestionServiceUnderTest.getStatus(validStatus.getTrackingId()).orElseThrow().getUserId())
+                .isEqualTo(7L);
+        verify(userService).createUser(valid);
+    }
+
+    @Test
+    void write_WriterHitsAnError_FailsTheGroupAndKeepsWriting() throws InterruptedException {
+        // Arrange
+        UserIngestionServiceImpl ingestionServiceUnderTest = newIngestionService();
+        CountDownLatch failing = new CountDownLatch(1);
+        when(userService.createUsers(anyList()))
+                .thenAnswer(invocation -> {
+                    failing.countDown();
+                    throw new Error("boom");
+                })
+                .thenReturn(List.of(new UserBatchItemResponse(0, 8L, 201, null)));
+        ingestionServiceUnderTest.start();
+
+        // Act
+        UserIngestionStatus lost = ingestionServiceUnderTest.submit(new UserDtoRequest("John", "john@example.com"));
+        failing.await();
+        UserIngestionStatus later = ingestionServiceUnderTest.submit(new UserDtoRequest("Jane", "jane@example.com"));
+        ingestionServiceUnderTest.stop();
+
+        // Assert
+        assertThat(ingestionServiceUnderTest.getStatus(lost.getTrackingId()).orElseThrow().getState())
+                .isEqualTo(UserIngestionStatus.State.FAILED);
+        assertThat(ingestionServiceUnderTest.getStatus(later.getTrackingId()).orElseThrow().getUserId())
+                .isEqualTo(8L);
+    }
+
+    @Test
+    void submit_AfterStop_ThrowsIngestionQueueFullException() {
+        // Arrange
+        UserIngestionServiceImpl ingestionServiceUnderTest = newIngestionService();
+        ingestionServiceUnderTest.start();
+        ingestionServiceUnderTest.stop();
+
+        // Act & Assert
+        assertThrows(IngestionQueueFullException.class,
+                () -> ingestionServiceUnderTest.submit(new UserDtoRequest("John", "john@example.com")));
+    }
+
+    private UserIngestionServiceImpl newIngestionService() {
+        return new UserIngestionServiceImpl(userService, userIngestionProperties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.UserLookupProperties;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserLookupCoalescerTest {
+
+    private static final UserDtoResponse USER_1 = new UserDtoResponse(1L, "John", "john@example.com", 0L);
+    private static final UserDtoResponse USER_2 = new UserDtoResponse(2L, "Jane", "jane@example.com", 0L);
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserLookupProperties userLookupProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userLookupProperties = new UserLookupProperties();
+        userLookupProperties.setCoalesce(true);
+    }
+
+    @Test
+    void findById_CoalescingDisabled_QueriesSingleUser() {
+        // Arrange
+        userLookupProperties.setCoalesce(false);
+        when(userRepository.findDtoById(1L)).thenReturn(Optional.of(USER_1));
+
+        // Act
+        Optional<UserDtoResponse> user = newCoalescer().findById(1L);
+
+        // Assert
+        assertThat(user).contains(USER_1);
+        verify(userRepository, only()).findDtoById(1L);
+    }
+
+    @Test
+    void findById_ConcurrentLookups_ShareOneQueryAndDeduplicateIds() {
+        // Arrange: the batch runs once it holds 3 ids, and its query blocks until the duplicate lookup has joined
+        userLookupProperties.setCoalesceWindow(Duration.ofMinutes(1));
+        userLookupProperties.setMaxBatchSize(3);
+        UserLookupCoalescer coalescerUnderTest = newCoalescer();
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch joined = new CountDownLatch(1);
+        when(userRepository.findDtosByIds(anyCollection())).thenAnswer(invocation -> {
+            queried.countDown();
+            joined.await();
+            Collection<Long> ids = invocation.getArgument(0);
+            return List.of(USER_1, USER_2).stream().filter(user -> ids.contains(user.getId())).toList();
+        });
+
+        // Act
+        List<Optional<UserDtoResponse>> users = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                List<CompletableFuture<Optional<UserDtoResponse>>> lookups = new ArrayList<>();
+                for (Long id : List.of(1L, 2L, 3L)) {
+                    lookups.add(CompletableFuture.supplyAsync(() -> coalescerUnderTest.findById(id), executor));
+                }
+                queried.await();
+                lookups.add(2, CompletableFuture.supplyAsync(() -> coalescerUnderTest.findById(1L), executor));
+                while (meterRegistry.get("users.lookup.joined").counter().count() < 1) {
+                    Thread.sleep(1);
+                }
+                joined.countDown();
+                return lookups.stream().map(CompletableFuture::join).toList();
+            }
+        });
+
+        // Assert
+        assertThat(users).containsExactly(Optional.of(USER_1), Optional.of(USER_2), Optional.of(USER_1), Optional.empty());
+        verify(userRepository, only()).findDtosByIds(anyCollection());
+    }
+
+    @Test
+    void findById_QueryThrowsError_FailsTheBatchAndLetsLaterLookupsQueryAgain() {
+        // Arrange
+        userLookupProperties.setCoalesceWindow(Duration.ZERO);
+        UserLookupCoalescer coalescerUnderTest = newCoalescer();
+        when(userRepository.findDtosByIds(List.of(1L)))
+                .thenThrow(new OutOfMemoryError("test"))
+                .thenReturn(List.of(USER_1));
+
+        // Act & Assert
+        assertThrows(OutOfMemoryError.class, () -> coalescerUnderTest.findById(1L));
+        Optional<UserDtoResponse> user = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> coalescerUnderTest.findById(1L));
+        assertThat(user).contains(USER_1);
+    }
+
+    @Test
+    void findById_JoinedQueryHangs_GivesUpAfterMaxWait() throws Exception {
+        // Arrange
+        userLookupProperties.setCoalesceWindow(Duration.ZERO);
+        userLookupProperties.setMaxWait(Duration.ofMillis(50));
+        UserLookupCoalescer coalescerUnderTest = newCoalescer();
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findDtosByIds(List.of(1L))).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await();
+            return List.of(USER_1);
+        });
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            CompletableFuture<Optional<UserDtoResponse>> first =
+                    CompletableFuture.supplyAsync(() -> coalescerUnderTest.findById(1L), executor);
+            queried.await();
+
+            // Act & Assert
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> assertThrows(QueryTimeoutException.class, () -> coalescerUnderTest.findById(1L)));
+            release.countDown();
+            assertThat(first.join()).contains(USER_1);
+        }
+    }
+
+    @Test
+    void findById_BatchFull_QueriesWithoutWaitingForWindow() {
+        // Arrange
+        userLookupProperties.setCoalesceWindow(Duration.ofMinutes(1));
+        userLookupProperties.setMaxBatchSize(1);
+        UserLookupCoalescer coalescerUnderTest = newCoalescer();
+        when(userRepository.findDtosByIds(List.of(1L))).thenReturn(List.of(USER_1));
+
+        // Act
+        Optional<UserDtoResponse> user = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> coalescerUnderTest.findById(1L));
+
+        // Assert
+        assertThat(user).contains(USER_1);
+    }
+
+    @Test
+    void findById_QueryFails_RethrowsQueryException() {
+        // Arrange
+        userLookupProperties.setCoalesceWindow(Duration.ZERO);
+        UserLookupCoalescer coalescerUnderTest = newCoalescer();
+        when(userRepository.findDtosByIds(List.of(1L))).thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> coalescerUnderTest.findById(1L));
+    }
+
+    private UserLookupCoalescer newCoalescer() {
+        return new UserLookupCoalescer(userRepository, userLookupProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.sbpostgresdockercompose.service;
+
+import com.example.sbpostgresdockercompose.config.CacheConfig;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import com.example.sbpostgresdockercompose.repository.UserRepository;
+import com.example.sbpostgresdockercompose.util.DtoMapperUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The cache annotations of {@link UserServiceImpl} in a Spring context, with the cache configured
+ * as in application.yml: which writes put or evict entries, and that the cache is metered.
+ */
+@SpringBootTest(classes = {UserServiceImpl.class, CacheConfig.class, UserServiceCachingTest.TransactionConfig.class})
+@ImportAutoConfiguration({CacheAutoConfiguration.class, CacheMetricsAutoConfiguration.class})
+@Import(SimpleMeterRegistry.class)
+class UserServiceCachingTest {
+
+    private static final Long USER_ID = 1L;
+    private static final UserDtoResponse USER = new UserDtoResponse(USER_ID, "John", "john@example.com", 0L);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserLookupCoalescer userLookupCoalescer;
+
+    @MockBean
+    private DtoMapperUtil dtoMapperUtil;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+        when(userLookupCoalescer.findById(USER_ID)).thenReturn(Optional.of(USER));
+    }
+
+    @Test
+    void getUserById_SecondCall_IsServedFromCache() {
+        // Act
+        userService.getUserById(USER_ID);
+        UserDtoResponse cached = userService.getUserById(USER_ID);
+
+        // Assert
+        assertThat(cached).isEqualTo(USER);
+        verify(userLookupCoalescer, times(1)).findById(USER_ID);
+    }
+
+    @Test
+    void getUserById_FillsTheCacheOutsideReadOnlyTransactions() {
+        // Act
+        userService.getUserById(USER_ID);
+        userService.getUserById(USER_ID);
+
+        // Assert: a miss reads from the primary, not from a possibly lagging replica; a hit opens no transaction
+        verify(transactionManager, times(1)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void updateUser_PutsTheUpdatedUser() {
+        // Arrange
+        userService.getUserById(USER_ID);
+        User user = new User();
+        UserDtoResponse updated = new UserDtoResponse(USER_ID, "Johnny", "john@example.com", 1L);
+        when(userRepository.updateNameAndEmailReturning(USER_ID, "Johnny", "john@example.com"))
+                .thenReturn(Optional.of(user));
+        when(dtoMapperUtil.toDto(user, UserDtoResponse.class)).thenReturn(updated);
+
+        // Act
+        userService.updateUser(USER_ID, new UserDtoRequest("Johnny", "john@example.com"), null);
+
+        // Assert: the next read is a hit with the new version
+        assertThat(userService.getUserById(USER_ID)).isEqualTo(updated);
+        verify(userLookupCoalescer, times(1)).findById(USER_ID);
+    }
+
+    @Test
+    void deleteUser_EvictsTheUser() {
+        // Arrange
+        userService.getUserById(USER_ID);
+        when(userRepository.deleteUserById(USER_ID)).thenReturn(1);
+
+        // Act
+        userService.deleteUser(USER_ID, null);
+
+        // Assert
+        userService.getUserById(USER_ID);
+        verify(userLookupCoalescer, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    void updateUsers_EvictsTheCache() {
+        // Arrange
+        userService.getUserById(USER_ID);
+        when(userRepository.findAllById(anyList())).thenReturn(List.of());
+
+        // Act
+        userService.updateUsers(List.of(new UserBatchUpdateRequest(USER_ID, "Johnny", "john@example.com")));
+
+        // Assert
+        userService.getUserById(USER_ID);
+        verify(userLookupCoalescer, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    void deleteUsers_EvictsTheCache() {
+        // Arrange
+        userService.getUserById(USER_ID);
+        when(userRepository.findAllById(anyList())).thenReturn(List.of());
+
+        // Act
+        userService.deleteUsers(List.of(USER_ID));
+
+        // Assert
+        userService.getUserById(USER_ID);
+        verify(userLookupCoalescer, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    void cache_ExportsHitAndMissCounts() {
+        // Arrange
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        // Act
+        userService.getUserById(USER_ID);
+        userService.getUserById(USER_ID);
+
+        // Assert
+        assertThat(cacheGets("hit") - hits).isEqualTo(1);
+        assertThat(cacheGets("miss") - misses).isEqualTo(1);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.USERS_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableTransactionManagement
+    static class TransactionConfig {
+    }
+}
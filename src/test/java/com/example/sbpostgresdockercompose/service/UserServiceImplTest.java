@@ -1,9 +1,14 @@
 package com.example.sbpostgresdockercompose.service;
 
+import com.example.sbpostgresdockercompose.dto.UserBatchItemResponse;
+import com.example.sbpostgresdockercompose.dto.UserBatchUpdateRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
 import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.dto.UserPageResponse;
 import com.example.sbpostgresdockercompose.entity.User;
+import com.example.sbpostgresdockercompose.exception.BadRequestException;
 import com.example.sbpostgresdockercompose.exception.EntityNotFoundException;
+import com.example.sbpostgresdockercompose.exception.PreconditionFailedException;
 import com.example.sbpostgresdockercompose.repository.UserRepository;
 import com.example.sbpostgresdockercompose.util.DtoMapperUtil;
 import org.junit.jupiter.api.Test;
@@ -11,14 +16,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -31,6 +43,9 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserLookupCoalescer userLookupCoalescer;
+
     @Mock
     private DtoMapperUtil dtoMapperUtil;
 
@@ -41,13 +56,8 @@ class UserServiceImplTest {
     void getUserById_ExistingUser_ReturnsUserDtoResponse() {
         // Arrange
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-
-        UserDtoResponse expectedUserDtoResponse = new UserDtoResponse();
-        when(dtoMapperUtil.toDto(user, UserDtoResponse.class)).thenReturn(expectedUserDtoResponse);
+        UserDtoResponse expectedUserDtoResponse = new UserDtoResponse(userId, "John", "john@example.com", 0L);
+        when(userLookupCoalescer.findById(userId)).thenReturn(Optional.of(expectedUserDtoResponse));
 
         // Act
         UserDtoResponse userDtoResponse = userServiceUnderTest.getUserById(userId);
@@ -55,64 +65,144 @@ class UserServiceImplTest {
         // Assert
         assertThat(userDtoResponse).isEqualTo(expectedUserDtoResponse);
 
-        verify(userRepository, only()).findById(userId);
-        verify(dtoMapperUtil, only()).toDto(user, UserDtoResponse.class);
+        verify(userLookupCoalescer, only()).findById(userId);
+        verifyNoMoreInteractions(userRepository, dtoMapperUtil);
     }
 
     @Test
     void getUserById_NonExistingUser_ThrowsEntityNotFoundException() {
         Long userId = 999L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userLookupCoalescer.findById(userId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> userServiceUnderTest.getUserById(userId));
 
-        verify(userRepository, only()).findById(userId);
+        verify(userLookupCoalescer, only()).findById(userId);
         verifyNoMoreInteractions(dtoMapperUtil);
     }
 
     @Test
-    void getAllUsers_ReturnsUserDtoResponseList() {
+    void getUsersByIds_ReturnsFoundUsersInRequestOrderWithoutDuplicates() {
         // Arrange
-        User user1 = new User();
-        user1.setId(1L);
+        UserDtoResponse user1 = new UserDtoResponse(1L, "A", "a@example.com", 0L);
+        UserDtoResponse user3 = new UserDtoResponse(3L, "C", "c@example.com", 0L);
+        when(userRepository.findDtosByIds(List.of(3L, 2L, 1L))).thenReturn(List.of(user1, user3));
 
-        User user2 = new User();
-        user2.setId(2L);
+        // Act
+        List<UserDtoResponse> users = userServiceUnderTest.getUsersByIds(Arrays.asList(3L, 2L, null, 3L, 1L));
+
+        // Assert
+        assertThat(users).containsExactly(user3, user1);
+        verify(userRepository, only()).findDtosByIds(List.of(3L, 2L, 1L));
+    }
 
-        List<User> userList = Arrays.asList(user1, user2);
-        when(userRepository.findAll()).thenReturn(userList);
+    @Test
+    void getUsersByIds_TooManyIds_ThrowsBadRequestException() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= UserServiceImpl.MAX_BATCH_SIZE + 1; id++) {
+            ids.add(id);
+        }
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> userServiceUnderTest.getUsersByIds(ids));
+        verifyNoMoreInteractions(userRepository);
+    }
 
-        UserDtoResponse dtoResponse1 = new UserDtoResponse();
-        UserDtoResponse dtoResponse2 = new UserDtoResponse();
-        when(dtoMapperUtil.toDto(user1, UserDtoResponse.class)).thenReturn(dtoResponse1);
-        when(dtoMapperUtil.toDto(user2, UserDtoResponse.class)).thenReturn(dtoResponse2);
+    @Test
+    void getAllUsers_ReturnsUserDtoResponsePage() {
+        // Arrange
+        UserDtoResponse dtoResponse1 = new UserDtoResponse(1L, "A", "a@example.com", 0L);
+        UserDtoResponse dtoResponse2 = new UserDtoResponse(2L, "B", "b@example.com", 0L);
+        when(userRepository.findDtoPageAfter(0L, PageRequest.of(0, 11))).thenReturn(Arrays.asList(dtoResponse1, dtoResponse2));
 
         // Act
-        List<UserDtoResponse> actualDtoResponseList = userServiceUnderTest.getAllUsers();
+        UserPageResponse actualPage = userServiceUnderTest.getAllUsers(null, 10);
 
         // Assert
-        assertThat(actualDtoResponseList)
+        assertThat(actualPage.getContent())
                 .isNotEmpty()
-                .containsExactlyInAnyOrder(dtoResponse1, dtoResponse2)
+                .containsExactly(dtoResponse1, dtoResponse2)
                 .hasSize(2);
+        assertThat(actualPage.getNextCursor()).isNull();
 
-        verify(userRepository, only()).findAll();
-        verify(dtoMapperUtil, times(1)).toDto(user1, UserDtoResponse.class);
-        verify(dtoMapperUtil, times(1)).toDto(user2, UserDtoResponse.class);
+        verify(userRepository, only()).findDtoPageAfter(0L, PageRequest.of(0, 11));
+        verifyNoMoreInteractions(dtoMapperUtil);
     }
 
     @Test
-    void getAllUsers_NoUsers_ReturnsEmptyList() {
+    void getAllUsersDigest_CoversThePageAndTheRowAfterIt() {
         // Arrange
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.digestPageAfter(10L, UserServiceImpl.MAX_PAGE_SIZE + 1)).thenReturn(42L);
 
         // Act
-        List<UserDtoResponse> actualDtoResponseList = userServiceUnderTest.getAllUsers();
+        long digest = userServiceUnderTest.getAllUsersDigest(10L, Integer.MAX_VALUE);
 
         // Assert
-        assertThat(actualDtoResponseList).isEmpty();
+        assertThat(digest).isEqualTo(42L);
+        verify(userRepository, only()).digestPageAfter(10L, UserServiceImpl.MAX_PAGE_SIZE + 1);
+    }
 
-        verify(userRepository, times(1)).findAll();
+    @Test
+    void getAllUsers_MoreRowsThanLimit_ReturnsNextCursor() {
+        // Arrange
+        when(userRepository.findDtoPageAfter(10L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(
+                        new UserDtoResponse(11L, null, null, 0L),
+                        new UserDtoResponse(12L, null, null, 0L),
+                        new UserDtoResponse(13L, null, null, 0L)));
+
+        // Act
+        UserPageResponse actualPage = userServiceUnderTest.getAllUsers(10L, 2);
+
+        // Assert
+        assertThat(actualPage.getContent()).extracting(UserDtoResponse::getId).containsExactly(11L, 12L);
+        assertThat(actualPage.getNextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    void getAllUsers_LimitAboveMaximum_IsCapped() {
+        // Arrange
+        when(userRepository.findDtoPageAfter(0L, PageRequest.of(0, UserServiceImpl.MAX_PAGE_SIZE + 1)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        UserPageResponse actualPage = userServiceUnderTest.getAllUsers(null, Integer.MAX_VALUE);
+
+        // Assert
+        assertThat(actualPage.getContent()).isEmpty();
+        assertThat(actualPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAllUsers_NoUsers_ReturnsEmptyPage() {
+        // Arrange
+        when(userRepository.findDtoPageAfter(0L, PageRequest.of(0, 51))).thenReturn(Collections.emptyList());
+
+        // Act
+        UserPageResponse actualPage = userServiceUnderTest.getAllUsers(null, 50);
+
+        // Assert
+        assertThat(actualPage.getContent()).isEmpty();
+
+        verify(userRepository, times(1)).findDtoPageAfter(0L, PageRequest.of(0, 51));
+    }
+
+    @Test
+    void streamAllUsers_PassesEveryRowToConsumer() {
+        // Arrange
+        UserDtoResponse dtoResponse1 = new UserDtoResponse(1L, "John", "john@example.com", 0L);
+        UserDtoResponse dtoResponse2 = new UserDtoResponse(2L, "Jane", "jane@example.com", 0L);
+        when(userRepository.streamAllAsDto()).thenReturn(Stream.of(dtoResponse1, dtoResponse2));
+
+        List<UserDtoResponse> consumed = new ArrayList<>();
+
+        // Act
+        userServiceUnderTest.streamAllUsers(consumed::add);
+
+        // Assert
+        assertThat(consumed).containsExactly(dtoResponse1, dtoResponse2);
+
+        verify(userRepository, only()).streamAllAsDto();
         verifyNoMoreInteractions(dtoMapperUtil);
     }
 
@@ -161,27 +251,28 @@ class UserServiceImplTest {
         userDtoRequest.setName("John Doe");
         userDtoRequest.setEmail("john.doe@example.com");
 
-        User existingUser = new User();
-        existingUser.setId(userId);
-        existingUser.setName("Old Name");
-        existingUser.setEmail("old.email@example.com");
+        User updatedUser = new User();
+        updatedUser.setId(userId);
+        updatedUser.setName("John Doe");
+        updatedUser.setEmail("john.doe@example.com");
 
         UserDtoResponse expectedDtoResponse = new UserDtoResponse();
         expectedDtoResponse.setId(userId);
         expectedDtoResponse.setName("John Doe");
         expectedDtoResponse.setEmail("john.doe@example.com");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(dtoMapperUtil.toDto(existingUser, UserDtoResponse.class)).thenReturn(expectedDtoResponse);
+        when(userRepository.updateNameAndEmailReturning(userId, "John Doe", "john.doe@example.com"))
+                .thenReturn(Optional.of(updatedUser));
+        when(dtoMapperUtil.toDto(updatedUser, UserDtoResponse.class)).thenReturn(expectedDtoResponse);
 
         // Act
-        UserDtoResponse actualDtoResponse = userServiceUnderTest.updateUser(userId, userDtoRequest);
+        UserDtoResponse actualDtoResponse = userServiceUnderTest.updateUser(userId, userDtoRequest, null);
 
         // Assert
         assertThat(actualDtoResponse).isEqualTo(expectedDtoResponse);
 
-        verify(userRepository, times(1)).findById(userId);
-        verify(dtoMapperUtil, times(1)).toDto(existingUser, UserDtoResponse.class);
+        verify(userRepository, only()).updateNameAndEmailReturning(userId, "John Doe", "john.doe@example.com");
+        verify(dtoMapperUtil, times(1)).toDto(updatedUser, UserDtoResponse.class);
     }
 
     @Test
@@ -192,30 +283,59 @@ class UserServiceImplTest {
         userDtoRequest.setName("John Doe");
         userDtoRequest.setEmail("john.doe@example.com");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.updateNameAndEmailReturning(userId, "John Doe", "john.doe@example.com"))
+                .thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> userServiceUnderTest.updateUser(userId, userDtoRequest));
+        assertThrows(EntityNotFoundException.class, () -> userServiceUnderTest.updateUser(userId, userDtoRequest, null));
 
-        verify(userRepository, only()).findById(userId);
+        verify(userRepository, only()).updateNameAndEmailReturning(userId, "John Doe", "john.doe@example.com");
         verifyNoMoreInteractions(userRepository, dtoMapperUtil);
     }
 
+    @Test
+    void updateUser_StaleExpectedVersion_ThrowsPreconditionFailedException() {
+        // Arrange
+        Long userId = 123L;
+        UserDtoRequest userDtoRequest = new UserDtoRequest("John Doe", "john.doe@example.com");
+
+        when(userRepository.updateNameAndEmailIfVersionReturning(userId, "John Doe", "john.doe@example.com", 1L))
+                .thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> userServiceUnderTest.updateUser(userId, userDtoRequest, 1L));
+
+        verify(userRepository, never()).updateNameAndEmailReturning(any(), any(), any());
+        verifyNoMoreInteractions(dtoMapperUtil);
+    }
+
+    @Test
+    void updateUser_ExpectedVersionForMissingUser_ThrowsEntityNotFoundException() {
+        // Arrange
+        Long userId = 123L;
+        UserDtoRequest userDtoRequest = new UserDtoRequest("John Doe", "john.doe@example.com");
+
+        when(userRepository.updateNameAndEmailIfVersionReturning(userId, "John Doe", "john.doe@example.com", 1L))
+                .thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> userServiceUnderTest.updateUser(userId, userDtoRequest, 1L));
+    }
+
     @Test
     void deleteUser_ExistingUser_DeletesUser() {
         // Arrange
         Long userId = 123L;
-        User existingUser = new User();
-        existingUser.setId(userId);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.deleteUserById(userId)).thenReturn(1);
 
         // Act
-        userServiceUnderTest.deleteUser(userId);
+        userServiceUnderTest.deleteUser(userId, null);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).delete(existingUser);
+        verify(userRepository, only()).deleteUserById(userId);
     }
 
     @Test
@@ -223,12 +343,188 @@ class UserServiceImplTest {
         // Arrange
         Long userId = 123L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.deleteUserById(userId)).thenReturn(0);
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> userServiceUnderTest.deleteUser(userId));
+        assertThrows(EntityNotFoundException.class, () -> userServiceUnderTest.deleteUser(userId, null));
 
-        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, times(1)).deleteUserById(userId);
         verifyNoMoreInteractions(userRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteUser_MatchingExpectedVersion_DeletesUser() {
+        // Arrange
+        Long userId = 123L;
+
+        when(userRepository.deleteUserByIdAndVersion(userId, 4L)).thenReturn(1);
+
+        // Act
+        userServiceUnderTest.deleteUser(userId, 4L);
+
+        // Assert
+        verify(userRepository, only()).deleteUserByIdAndVersion(userId, 4L);
+    }
+
+    @Test
+    void deleteUser_StaleExpectedVersion_ThrowsPreconditionFailedException() {
+        // Arrange
+        Long userId = 123L;
+
+        when(userRepository.deleteUserByIdAndVersion(userId, 3L)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> userServiceUnderTest.deleteUser(userId, 3L));
+    }
+
+    @Test
+    void createUsers_ValidRequests_ReturnsCreatedResultsInOrder() {
+        // Arrange
+        UserDtoRequest request1 = new UserDtoRequest("John", "john@example.com");
+        UserDtoRequest request2 = new UserDtoRequest("Jane", "jane@example.com");
+
+        User user1 = new User();
+        User user2 = new User();
+        when(dtoMapperUtil.toEntity(request1, User.class)).thenReturn(user1);
+        when(dtoMapperUtil.toEntity(request2, User.class)).thenReturn(user2);
+
+        User savedUser1 = new User();
+        savedUser1.setId(1L);
+        User savedUser2 = new User();
+        savedUser2.setId(2L);
+        when(userRepository.saveAll(List.of(user1, user2))).thenReturn(List.of(savedUser1, savedUser2));
+
+        // Act
+        List<UserBatchItemResponse> results = userServiceUnderTest.createUsers(Arrays.asList(request1, null, request2));
+
+        // Assert
+        assertThat(results).containsExactly(
+                new UserBatchItemResponse(0, 1L, 201, null),
+                new UserBatchItemResponse(1, null, 400, UserServiceImpl.BATCH_ITEM_INVALID),
+                new UserBatchItemResponse(2, 2L, 201, null));
+
+        verify(userRepository, only()).saveAll(List.of(user1, user2));
+    }
+
+    @Test
+    void createUsers_TooManyItems_ThrowsBadRequestException() {
+        // Arrange
+        List<UserDtoRequest> requests = Collections.nCopies(UserServiceImpl.MAX_BATCH_SIZE + 1, new UserDtoRequest());
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> userServiceUnderTest.createUsers(requests));
+
+        verifyNoMoreInteractions(userRepository, dtoMapperUtil);
+    }
+
+    @Test
+    void updateUsers_UpdatesExistingAndReportsMissing() {
+        // Arrange
+        User existingUser = new User();
+        existingUser.setId(1L);
+        existingUser.setName("Old Name");
+        existingUser.setEmail("old.email@example.com");
+
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existingUser));
+
+        List<UserBatchUpdateRequest> requests = Arrays.asList(
+                new UserBatchUpdateRequest(1L, "John Doe", "john.doe@example.com"),
+                new UserBatchUpdateRequest(2L, "Jane Doe", "jane.doe@example.com"),
+                new UserBatchUpdateRequest(null, "No Id", "no.id@example.com"));
+
+        // Act
+        List<UserBatchItemResponse> results = userServiceUnderTest.updateUsers(requests);
+
+        // Assert
+        assertThat(results).extracting(UserBatchItemResponse::getStatus).containsExactly(200, 404, 400);
+        assertThat(existingUser.getName()).isEqualTo("John Doe");
+        assertThat(existingUser.getEmail()).isEqualTo("john.doe@example.com");
+
+        verify(userRepository, only()).findAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    void deleteUsers_DeletesExistingInOneStatementAndReportsMissing() {
+        // Arrange
+        User existingUser = new User();
+        existingUser.setId(1L);
+
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existingUser));
+
+        // Act
+        List<UserBatchItemResponse> results = userServiceUnderTest.deleteUsers(Arrays.asList(1L, 2L, null));
+
+        // Assert
+        assertThat(results).extracting(UserBatchItemResponse::getStatus).containsExactly(204, 404, 400);
+
+        verify(userRepository, times(1)).deleteAllByIdInBatch(Set.of(1L));
+    }
+
+    @Test
+    void deleteUsers_NoneExist_DoesNotDelete() {
+        // Arrange
+        when(userRepository.findAllById(List.of(5L))).thenReturn(Collections.emptyList());
+
+        // Act
+        List<UserBatchItemResponse> results = userServiceUnderTest.deleteUsers(List.of(5L));
+
+        // Assert
+        assertThat(results).extracting(UserBatchItemResponse::getStatus).containsExactly(404);
+
+        verify(userRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    @Test
+    void searchUsers_ByEmail_ReturnsMatchingUser() {
+        // Arrange
+        UserDtoResponse expectedDtoResponse = new UserDtoResponse(1L, "John", "john@example.com", 0L);
+        when(userRepository.findDtoByEmail("john@example.com")).thenReturn(Optional.of(expectedDtoResponse));
+
+        // Act
+        List<UserDtoResponse> actualDtoResponseList = userServiceUnderTest.searchUsers("john@example.com", null, 50);
+
+        // Assert
+        assertThat(actualDtoResponseList).containsExactly(expectedDtoResponse);
+
+        verify(userRepository, only()).findDtoByEmail("john@example.com");
+    }
+
+    @Test
+    void searchUsers_ByEmailAndNamePrefix_UsesCombinedQuery() {
+        // Arrange
+        when(userRepository.findDtoByEmailAndNamePrefix("john@example.com", "Jo")).thenReturn(Optional.empty());
+
+        // Act
+        List<UserDtoResponse> actualDtoResponseList = userServiceUnderTest.searchUsers("john@example.com", "Jo", 50);
+
+        // Assert
+        assertThat(actualDtoResponseList).isEmpty();
+
+        verify(userRepository, only()).findDtoByEmailAndNamePrefix("john@example.com", "Jo");
+        verifyNoMoreInteractions(dtoMapperUtil);
+    }
+
+    @Test
+    void searchUsers_ByNamePrefix_ReturnsLimitedMatches() {
+        // Arrange
+        UserDtoResponse expectedDtoResponse = new UserDtoResponse(1L, "John", "john@example.com", 0L);
+        when(userRepository.findDtoByNamePrefix("Jo", PageRequest.of(0, 10))).thenReturn(List.of(expectedDtoResponse));
+
+        // Act
+        List<UserDtoResponse> actualDtoResponseList = userServiceUnderTest.searchUsers(null, "Jo", 10);
+
+        // Assert
+        assertThat(actualDtoResponseList).containsExactly(expectedDtoResponse);
+
+        verify(userRepository, only()).findDtoByNamePrefix("Jo", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void searchUsers_NoCriteria_ThrowsBadRequestException() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> userServiceUnderTest.searchUsers(" ", null, 50));
+
+        verifyNoMoreInteractions(userRepository, dtoMapperUtil);
+    }
+}
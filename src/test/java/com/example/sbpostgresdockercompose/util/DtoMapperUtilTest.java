@@ -0,0 +1,72 @@
+package com.example.sbpostgresdockercompose.util;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DtoMapperUtilTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DtoMapperUtil dtoMapperUtil = new DtoMapperUtil(new ModelMapper(), meterRegistry);
+
+    @Test
+    void toDto_RegisteredPair_UsesRegisteredMapper() {
+        // Arrange
+        User user = user(new User());
+
+        // Act
+        UserDtoResponse response = dtoMapperUtil.toDto(user, UserDtoResponse.class);
+
+        // Assert
+        assertThat(response).isEqualTo(new UserDtoResponse(1L, "John", "john@example.com", 3L));
+        assertThat(mappings("registered", "User")).isEqualTo(1);
+        assertThat(mappings("modelmapper", "*")).isZero();
+    }
+
+    @Test
+    void toDto_SubclassOfRegisteredSource_UsesRegisteredMapper() {
+        // Arrange: the shape of a Hibernate proxy
+        User proxy = user(new User() {
+        });
+
+        // Act
+        UserDtoResponse response = dtoMapperUtil.toDto(proxy, UserDtoResponse.class);
+
+        // Assert
+        assertThat(response).isEqualTo(new UserDtoResponse(1L, "John", "john@example.com", 3L));
+        assertThat(mappings("registered", "User")).isEqualTo(1);
+        assertThat(mappings("modelmapper", "*")).isZero();
+    }
+
+    @Test
+    void toDto_UnregisteredPair_FallsBackToModelMapper() {
+        // Arrange
+        UserDtoRequest request = new UserDtoRequest("John", "john@example.com");
+
+        // Act
+        UserDtoResponse response = dtoMapperUtil.toDto(request, UserDtoResponse.class);
+
+        // Assert
+        assertThat(response).isEqualTo(new UserDtoResponse(null, "John", "john@example.com", null));
+        assertThat(mappings("modelmapper", "*")).isEqualTo(1);
+    }
+
+    private long mappings(String mapper, String source) {
+        return meterRegistry.get("users.mapping").tag("mapper", mapper).tag("source", source).timers().stream()
+                .mapToLong(timer -> timer.count())
+                .sum();
+    }
+
+    private static User user(User user) {
+        user.setId(1L);
+        user.setName("John");
+        user.setEmail("john@example.com");
+        user.setVersion(3L);
+        return user;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.sbpostgresdockercompose.util;
+
+import com.example.sbpostgresdockercompose.dto.UserDtoRequest;
+import com.example.sbpostgresdockercompose.dto.UserDtoResponse;
+import com.example.sbpostgresdockercompose.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMappersTest {
+
+    @Test
+    void toResponse_CopiesAllFields() {
+        // Arrange
+        User user = new User();
+        user.setId(1L);
+        user.setName("John");
+        user.setEmail("john@example.com");
+        user.setVersion(3L);
+
+        // Act & Assert
+        assertThat(UserMappers.toResponse(user)).isEqualTo(new UserDtoResponse(1L, "John", "john@example.com", 3L));
+        assertThat(UserMappers.toRequest(user)).isEqualTo(new UserDtoRequest("John", "john@example.com"));
+    }
+
+    @Test
+    void toEntity_FromRequest_LeavesIdAndVersionUnset() {
+        // Act
+        User user = UserMappers.toEntity(new UserDtoRequest("John", "john@example.com"));
+
+        // Assert
+        assertThat(user.getId()).isNull();
+        assertThat(user.getVersion()).isNull();
+        assertThat(user.getName()).isEqualTo("John");
+        assertThat(user.getEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void toEntity_FromResponse_CopiesAllFields() {
+        // Act
+        User user = UserMappers.toEntity(new UserDtoResponse(1L, "John", "john@example.com", 3L));
+
+        // Assert
+        assertThat(user.getId()).isEqualTo(1L);
+        assertThat(user.getName()).isEqualTo("John");
+        assertThat(user.getEmail()).isEqualTo("john@example.com");
+        assertThat(user.getVersion()).isEqualTo(3L);
+    }
+}